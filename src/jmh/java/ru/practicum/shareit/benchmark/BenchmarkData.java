@@ -0,0 +1,55 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+public class BenchmarkData {
+    private final User owner;
+    private final User booker;
+    private final List<Item> items;
+
+    private BenchmarkData(User owner, User booker, List<Item> items) {
+        this.owner = owner;
+        this.booker = booker;
+        this.items = items;
+    }
+
+    public static BenchmarkData fill(ApplicationContext context, int itemCount, int bookingsPerItem) {
+        UserStorage userStorage = context.getBean(UserStorage.class);
+        ItemStorage itemStorage = context.getBean(ItemStorage.class);
+        BookingStorage bookingStorage = context.getBean(BookingStorage.class);
+        User owner = userStorage.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User booker = userStorage.save(User.builder().name("booker").email("booker@mail.ru").build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(Item.builder().name("Вещь " + i).description("Описание вещи " + i).available(true).owner(owner).build());
+        }
+        items = itemStorage.saveAll(items);
+        LocalDateTime now = LocalDateTime.now();
+        for (Item item : items) {
+            List<Booking> bookings = new ArrayList<>();
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusDays(i - bookingsPerItem / 2);
+                bookings.add(Booking.builder().start(start).end(start.plusHours(12)).item(item).booker(booker)
+                        .status(Status.APPROVED).build());
+            }
+            bookingStorage.saveAll(bookings);
+        }
+        context.getBean(ItemBookingSummaryService.class).rebuild(items.stream().map(Item::getId).collect(Collectors.toList()));
+        return new BenchmarkData(owner, booker, items);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate создает инспектор сам по имени класса, поэтому задержка передается через статическое поле.
+public class LatencyInspector implements StatementInspector {
+    private static volatile long latencyMillis;
+
+    static void setLatencyMillis(long latencyMillis) {
+        LatencyInspector.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
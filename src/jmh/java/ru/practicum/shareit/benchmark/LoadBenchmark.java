@@ -0,0 +1,123 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+public class LoadBenchmark {
+    private static final String POSTGRES_URL = "shareit.benchmark.postgres-url";
+    private static final String POSTGRES_USER = "shareit.benchmark.postgres-user";
+    private static final String POSTGRES_PASSWORD = "shareit.benchmark.postgres-password";
+
+    @Param({"platform", "virtual"})
+    private String threads;
+    @Param("100")
+    private int items;
+    @Param("20")
+    private int bookingsPerItem;
+    // Блокирующая задержка на каждый SQL-запрос: H2 в памяти отвечает без ожидания ввода-вывода,
+    // и без нее сравнение потоков ничего не говорит о работе с сетевой БД.
+    @Param("5")
+    private long dbLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long ownerId;
+    private long bookerId;
+    private long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] profiles = "virtual".equals(threads) ? new String[]{"test", "virtual"} : new String[]{"test"};
+        LatencyInspector.setLatencyMillis(dbLatencyMillis);
+        // Аргументы, а не properties(): значения по умолчанию не перекрывают application-test.properties.
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + LatencyInspector.class.getName()));
+        String postgresUrl = System.getProperty(POSTGRES_URL);
+        if (postgresUrl != null) {
+            args.addAll(List.of("--spring.datasource.url=" + postgresUrl,
+                    "--spring.datasource.driverClassName=org.postgresql.Driver",
+                    "--spring.datasource.username=" + System.getProperty(POSTGRES_USER, "dbuser"),
+                    "--spring.datasource.password=" + System.getProperty(POSTGRES_PASSWORD, "12345"),
+                    "--spring.jpa.database=postgresql",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                    "--spring.sql.init.platform=postgresql"));
+        }
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles(profiles)
+                .properties("server.port=0",
+                        "shareit.rate-limit.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run(args.toArray(new String[0]));
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        BenchmarkData data = BenchmarkData.fill(context, items, bookingsPerItem);
+        ownerId = data.getOwner().getId();
+        bookerId = data.getBooker().getId();
+        itemId = data.getItems().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int ownerBookings() throws IOException, InterruptedException {
+        return get("/bookings/owner?state=ALL", ownerId);
+    }
+
+    @Benchmark
+    public int bookerBookings() throws IOException, InterruptedException {
+        return get("/bookings?state=PAST", bookerId);
+    }
+
+    @Benchmark
+    public int ownerItems() throws IOException, InterruptedException {
+        return get("/items", ownerId);
+    }
+
+    @Benchmark
+    public int itemById() throws IOException, InterruptedException {
+        return get("/items/" + itemId, ownerId);
+    }
+
+    private int get(String path, long userId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " вернул " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+    private Item item;
+    private Booking booking;
+    private BookingDto nextBooking;
+    private BookingDto lastBooking;
+    private Comment comment;
+    private List<CommentDtoResponse> comments;
+
+    @Setup
+    public void setUp() {
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        item = Item.builder().id(1L).name("Дрель").description("Простая дрель").available(true).owner(owner).build();
+        LocalDateTime now = LocalDateTime.now();
+        booking = Booking.builder().id(1L).start(now.plusDays(1)).end(now.plusDays(2))
+                .item(item).booker(booker).status(Status.APPROVED).build();
+        nextBooking = BookingMapper.toBookingDto(booking);
+        lastBooking = BookingMapper.toBookingDto(Booking.builder().id(2L).start(now.minusDays(2)).end(now.minusDays(1))
+                .item(item).booker(booker).status(Status.APPROVED).build());
+        comment = Comment.builder().id(1L).text("Отличная дрель").item(item).author(booker).created(now).build();
+        comments = List.of(CommentMapper.toCommentDto(comment), CommentMapper.toCommentDto(comment));
+    }
+
+    @Benchmark
+    public ItemDtoWithBooking toItemDtoWithBooking() {
+        return ItemMapper.toItemDtoWithBooking(item, nextBooking, lastBooking, comments);
+    }
+
+    @Benchmark
+    public BookingDto toBookingDto() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public CommentDtoResponse toCommentDto() {
+        return CommentMapper.toCommentDto(comment);
+    }
+}
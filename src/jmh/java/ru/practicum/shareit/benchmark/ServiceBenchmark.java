@@ -0,0 +1,76 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServiceBenchmark {
+    @Param("1000")
+    private int items;
+    @Param("100")
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private long ownerId;
+    private long bookerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        BenchmarkData data = BenchmarkData.fill(context, items, bookingsPerItem);
+        ownerId = data.getOwner().getId();
+        bookerId = data.getBooker().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDtoWithBooking> getByOwner() {
+        return itemService.getByOwner(ownerId);
+    }
+
+    @Benchmark
+    public Window<BookingDto> getUserBookingsByState() {
+        return bookingService.getUserBookingsByState(bookerId, "ALL", 0, 10, null);
+    }
+
+    @Benchmark
+    public Window<BookingDto> getUserPastBookingsByState() {
+        return bookingService.getUserBookingsByState(bookerId, "PAST", 0, 10, null);
+    }
+}
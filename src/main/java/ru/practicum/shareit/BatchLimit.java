@@ -0,0 +1,23 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.util.List;
+
+// Пакет сохраняется одной транзакцией под блокировками, поэтому его размер ограничен.
+@Component
+public class BatchLimit {
+    private final int maxSize;
+
+    public BatchLimit(@Value("${shareit.batch.max-size:500}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void check(List<?> batch) {
+        if (batch.size() > maxSize) {
+            throw new ValidationException("Пакет не может содержать больше " + maxSize + " записей.");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        return DigestUtils.md5DigestAsHex(Arrays.toString(parts).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+// Курсор - это ключ сортировки и id последней строки страницы в виде "key|id", закодированные в base64.
+public final class KeysetCursor {
+    public static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Object key, Long id) {
+        String cursor = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(ScrollPosition position, String keyName) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        return encode(keys.get(keyName), (Long) keys.get(ID));
+    }
+
+    public static KeysetScrollPosition decode(String cursor, String keyName, Function<String, ?> keyParser) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.lastIndexOf(SEPARATOR);
+            Object key = keyParser.apply(decoded.substring(0, separatorIndex));
+            Long id = Long.parseLong(decoded.substring(separatorIndex + 1));
+            return ScrollPosition.forward(Map.of(keyName, key, ID, id));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Component
+public class NdjsonExporter {
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private static final int CLEAR_INTERVAL = Integer.parseInt(StorageHints.EXPORT_FETCH_SIZE);
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMillis;
+
+    public NdjsonExporter(ObjectMapper objectMapper, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                          @Value("${shareit.export.timeout:PT10M}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    // Длинный таймаут нужен только выгрузкам, поэтому он задается на запрос, а не на все асинхронные ответы.
+    public WebAsyncTask<Void> response(HttpServletResponse response, Consumer<OutputStream> export) {
+        response.setContentType(MEDIA_TYPE);
+        return new WebAsyncTask<>(timeoutMillis, () -> {
+            OutputStream out = response.getOutputStream();
+            export.accept(out);
+            out.flush();
+            return null;
+        });
+    }
+
+    public <T> Consumer<OutputStream> export(Supplier<Stream<T>> query, Function<T, ?> mapper) {
+        return out -> transactionTemplate.executeWithoutResult(status -> write(query.get(), mapper, out));
+    }
+
+    private <T> void write(Stream<T> entities, Function<T, ?> mapper, OutputStream out) {
+        try (entities; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<T> iterator = entities.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                T entity = iterator.next();
+                objectMapper.writeValue(generator, mapper.apply(entity));
+                generator.writeRaw('\n');
+                entityManager.detach(entity);
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.util.function.Function;
+
+// Параметры from/size/cursor списочных эндпоинтов: cursor важнее from, без size список не ограничен.
+public final class Paging {
+    private Paging() {
+    }
+
+    public static ScrollPosition position(Integer from, String cursor, String keyName, Function<String, ?> keyParser) {
+        if (cursor != null) {
+            return KeysetCursor.decode(cursor, keyName, keyParser);
+        }
+        if (from == null) {
+            return ScrollPosition.keyset();
+        }
+        if (from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным.");
+        }
+        // OffsetScrollPosition указывает на последний уже прочитанный элемент, поэтому выборка начнется с from.
+        return from == 0 ? ScrollPosition.keyset() : ScrollPosition.offset(from - 1);
+    }
+
+    public static Limit limit(Integer size) {
+        if (size == null) {
+            return Limit.unlimited();
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр size должен быть больше нуля.");
+        }
+        return Limit.of(size);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(List<HikariDataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return nextReplica().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return nextReplica().getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource nextReplica() {
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "shareit.datasource.replicas[0].url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            primaryDataSource.copyStateTo(dataSource);
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                dataSource.setUsername(replica.getUsername());
+                dataSource.setPassword(replica.getPassword());
+            }
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReplicaDataSource(replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        // Соединение берется при первом запросе, когда признак readOnly транзакции уже выставлен.
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
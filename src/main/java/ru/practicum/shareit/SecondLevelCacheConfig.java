@@ -0,0 +1,53 @@
+package ru.practicum.shareit;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+
+@Configuration
+public class SecondLevelCacheConfig {
+    public static final String CACHE_HIT_RATIO = "hibernate.second.level.cache.hit.ratio";
+
+    // Свой CacheManager на каждый контекст: общий на JVM смешал бы регионы разных баз, например в тестах.
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = new CaffeineCachingProvider();
+        return provider.getCacheManager(provider.getDefaultURI(), provider.getDefaultClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                if (regionStatistics != null) {
+                    Gauge.builder(CACHE_HIT_RATIO, regionStatistics, SecondLevelCacheConfig::hitRatio)
+                            .tag("region", region)
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics statistics) {
+        long requests = statistics.getHitCount() + statistics.getMissCount();
+        return requests == 0 ? Double.NaN : (double) statistics.getHitCount() / requests;
+    }
+}
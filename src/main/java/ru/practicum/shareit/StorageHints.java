@@ -0,0 +1,10 @@
+package ru.practicum.shareit;
+
+// Значения подсказок для запросов репозиториев: аннотациям нужны строковые константы.
+public final class StorageHints {
+    // Экспорт читает строки курсором JDBC страницами такого размера.
+    public static final String EXPORT_FETCH_SIZE = "500";
+
+    private StorageHints() {
+    }
+}
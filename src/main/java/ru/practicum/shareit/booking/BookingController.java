@@ -1,7 +1,15 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.practicum.shareit.BatchLimit;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.NdjsonExporter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -13,7 +21,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final BatchLimit batchLimit;
+    private final NdjsonExporter ndjsonExporter;
 
     @PostMapping
     public BookingDto create(@RequestBody BookingDtoRequest bookingDtoRequest,
@@ -21,6 +33,13 @@ public class BookingController {
         return bookingService.create(bookingDtoRequest, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createAll(@RequestBody List<BookingDtoRequest> bookingDtoRequests,
+                                      @RequestHeader("X-Sharer-User-Id") Long userId) {
+        batchLimit.check(bookingDtoRequests);
+        return bookingService.createAll(bookingDtoRequests, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto changeBookingStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                           @PathVariable Long bookingId,
@@ -30,19 +49,49 @@ public class BookingController {
 
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                 @PathVariable Long bookingId) {
+                                 @PathVariable Long bookingId,
+                                 WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingTag(userId, bookingId))) {
+            return null;
+        }
         return bookingService.getBooking(userId, bookingId);
     }
 
+    // Без size список отдается целиком, как до появления постраничного вывода.
     @GetMapping
-    public List<BookingDto> findUserBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                            @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        return bookingService.getUserBookingsByState(userId, state);
+    public ResponseEntity<List<BookingDto>> findUserBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                            @RequestParam(name = "from", required = false) Integer from,
+                                                            @RequestParam(name = "size", required = false) Integer size,
+                                                            @RequestParam(name = "cursor", required = false) String cursor) {
+        return toResponse(bookingService.getUserBookingsByState(userId, state, from, size, cursor));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findBookingByUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        return bookingService.getUserItemsBookingsByState(userId, state);
+    public ResponseEntity<List<BookingDto>> findBookingByUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                   @RequestParam(name = "from", required = false) Integer from,
+                                                                   @RequestParam(name = "size", required = false) Integer size,
+                                                                   @RequestParam(name = "cursor", required = false) String cursor) {
+        return toResponse(bookingService.getUserItemsBookingsByState(userId, state, from, size, cursor));
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId, HttpServletResponse response) {
+        return ndjsonExporter.response(response, bookingService.exportUserBookings(userId));
+    }
+
+    @GetMapping("/owner/export")
+    public WebAsyncTask<Void> exportUserItemsBookings(@RequestHeader("X-Sharer-User-Id") Long userId, HttpServletResponse response) {
+        return ndjsonExporter.response(response, bookingService.exportUserItemsBookings(userId));
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(Window<BookingDto> bookings) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.hasNext()) {
+            BookingDto last = bookings.getContent().get(bookings.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, KeysetCursor.encode(last.getStart(), last.getId()));
+        }
+        return response.body(bookings.getContent());
     }
 }
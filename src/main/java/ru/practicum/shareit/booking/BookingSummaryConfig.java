@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.booking-summary.sweep-enabled", matchIfMissing = true)
+public class BookingSummaryConfig {
+}
@@ -3,8 +3,6 @@ package ru.practicum.shareit.booking.dto;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +12,8 @@ public class BookingDto {
     private long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
     private Status status;
+    private Long itemId;
+    private String itemName;
+    private Long bookerId;
 }
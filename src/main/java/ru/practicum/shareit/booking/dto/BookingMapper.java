@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.dto;
 
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingView;
 import ru.practicum.shareit.item.model.Item;
 
 public class BookingMapper {
@@ -9,20 +10,22 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
                 .status(booking.getStatus())
+                .itemId(booking.getItem().getId())
+                .itemName(booking.getItem().getName())
+                .bookerId(booking.getBooker().getId())
                 .build();
     }
 
-    public static Booking toBooking(BookingDto bookingDto) {
-        return Booking.builder()
-                .id(bookingDto.getId())
-                .start(bookingDto.getStart())
-                .end(bookingDto.getEnd())
-                .item(bookingDto.getItem())
-                .booker(bookingDto.getBooker())
-                .status(bookingDto.getStatus())
+    public static BookingDto toBookingDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .itemId(booking.getItemId())
+                .itemName(booking.getItemName())
+                .bookerId(booking.getBookerId())
                 .build();
     }
 
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class BookingAuditLogger implements BookingEventConsumer {
+    @Override
+    public void accept(List<BookingEvent> events) {
+        for (BookingEvent event : events) {
+            log.info("Бронирование {} вещи {} пользователем {}: {}", event.getBookingId(), event.getItemId(),
+                    event.getBookerId(), event.getStatus());
+        }
+    }
+}
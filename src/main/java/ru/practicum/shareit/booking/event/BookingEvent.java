@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+    private Long bookingId;
+    private Long itemId;
+    private Long bookerId;
+    private Status status;
+    private LocalDateTime occurredAt;
+
+    public static BookingEvent of(Booking booking) {
+        return BookingEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .status(booking.getStatus())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+public class BookingEventBus implements SmartLifecycle {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BUSY_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final BoundedQueue<Envelope> inbox;
+    private final List<Channel> channels = new ArrayList<>();
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private final Counter rejected;
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+
+    public BookingEventBus(List<BookingEventConsumer> consumers,
+                           MeterRegistry registry,
+                           @Value("${shareit.events.queue-capacity:10000}") int queueCapacity,
+                           @Value("${shareit.events.batch-size:100}") int batchSize,
+                           @Value("${shareit.events.offer-timeout:PT0.1S}") Duration offerTimeout) {
+        this.inbox = new BoundedQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.rejected = registry.counter("shareit.events.rejected");
+        Gauge.builder("shareit.events.queue.size", inbox, BoundedQueue::size)
+                .tag("queue", "inbox")
+                .register(registry);
+        for (BookingEventConsumer consumer : consumers) {
+            channels.add(new Channel(consumer, queueCapacity, registry));
+        }
+    }
+
+    // Потоки запускаются вместе с контекстом, а не в конструкторе, чтобы не работать с недостроенным бином.
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Channel channel : channels) {
+            channel.start();
+        }
+        dispatcher = Thread.ofPlatform().daemon().name("booking-events-dispatcher").start(this::dispatch);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        publish(event);
+    }
+
+    public boolean publish(BookingEvent event) {
+        Envelope envelope = new Envelope(event, System.nanoTime());
+        long deadline = envelope.publishedAt + offerTimeoutNanos;
+        while (!inbox.offer(envelope)) {
+            if (System.nanoTime() - deadline > 0) {
+                rejected.increment();
+                log.warn("Очередь событий бронирования переполнена, событие {} отброшено", event);
+                return false;
+            }
+            LockSupport.unpark(dispatcher);
+            LockSupport.parkNanos(BUSY_PARK_NANOS);
+        }
+        LockSupport.unpark(dispatcher);
+        return true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            LockSupport.unpark(dispatcher);
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            for (Channel channel : channels) {
+                channel.stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running || inbox.size() > 0) {
+            if (inbox.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            for (Channel channel : channels) {
+                channel.offerAll(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private static final class Envelope {
+        private final BookingEvent event;
+        private final long publishedAt;
+
+        private Envelope(BookingEvent event, long publishedAt) {
+            this.event = event;
+            this.publishedAt = publishedAt;
+        }
+    }
+
+    private final class Channel {
+        private final BookingEventConsumer consumer;
+        private final BoundedQueue<Envelope> queue;
+        private final Timer lag;
+        private final DistributionSummary batchSizes;
+        private final Counter failed;
+        private final Counter dropped;
+        private volatile Thread worker;
+        private volatile boolean open;
+
+        private Channel(BookingEventConsumer consumer, int capacity, MeterRegistry registry) {
+            this.consumer = consumer;
+            this.queue = new BoundedQueue<>(capacity);
+            Gauge.builder("shareit.events.queue.size", queue, BoundedQueue::size)
+                    .tag("queue", consumer.name())
+                    .register(registry);
+            this.lag = Timer.builder("shareit.events.lag")
+                    .tag("consumer", consumer.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry);
+            this.batchSizes = DistributionSummary.builder("shareit.events.batch.size")
+                    .tag("consumer", consumer.name())
+                    .register(registry);
+            this.failed = registry.counter("shareit.events.failed", "consumer", consumer.name());
+            this.dropped = registry.counter("shareit.events.dropped", "consumer", consumer.name());
+        }
+
+        private void start() {
+            open = true;
+            worker = Thread.ofPlatform().daemon().name("booking-events-" + consumer.name()).start(this::consume);
+        }
+
+        // Медленный обработчик теряет свои события, но не задерживает диспетчер и остальных.
+        private void offerAll(List<Envelope> batch) {
+            int lost = 0;
+            for (Envelope envelope : batch) {
+                if (!queue.offer(envelope)) {
+                    lost++;
+                }
+            }
+            LockSupport.unpark(worker);
+            if (lost > 0) {
+                dropped.increment(lost);
+                log.warn("Очередь обработчика {} переполнена, отброшено {} событий бронирования", consumer.name(), lost);
+            }
+        }
+
+        private void consume() {
+            List<Envelope> batch = new ArrayList<>(batchSize);
+            while (open || queue.size() > 0) {
+                if (queue.drainTo(batch, batchSize) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                List<BookingEvent> events = new ArrayList<>(batch.size());
+                for (Envelope envelope : batch) {
+                    events.add(envelope.event);
+                }
+                try {
+                    consumer.accept(events);
+                } catch (RuntimeException e) {
+                    failed.increment(events.size());
+                    log.error("Обработчик {} не смог обработать {} событий бронирования", consumer.name(), events.size(), e);
+                }
+                long now = System.nanoTime();
+                for (Envelope envelope : batch) {
+                    lag.record(now - envelope.publishedAt, TimeUnit.NANOSECONDS);
+                }
+                batchSizes.record(batch.size());
+                batch.clear();
+            }
+        }
+
+        private void stop() throws InterruptedException {
+            open = false;
+            LockSupport.unpark(worker);
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
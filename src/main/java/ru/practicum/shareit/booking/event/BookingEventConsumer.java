@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.event;
+
+import java.util.List;
+
+public interface BookingEventConsumer {
+    void accept(List<BookingEvent> events);
+
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
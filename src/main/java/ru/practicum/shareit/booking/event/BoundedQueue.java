@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.event;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BoundedQueue<T> {
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    BoundedQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean offer(T element) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        queue.offer(element);
+        return true;
+    }
+
+    int drainTo(Collection<T> batch, int maxElements) {
+        int drained = 0;
+        T element;
+        while (drained < maxElements && (element = queue.poll()) != null) {
+            batch.add(element);
+            drained++;
+        }
+        size.addAndGet(-drained);
+        return drained;
+    }
+
+    int size() {
+        return size.get();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,6 +13,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.withItemAndBooker",
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("request")
+        }))
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,19 +29,23 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private long id;
     @Column(name = "start_date", nullable = false)
     private LocalDateTime start;
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "booker_id", nullable = false)
     private User booker;
     @Column(name = "status")
     @Enumerated(EnumType.STRING)
     private Status status;
+    @Version
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "item_booking_summary")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingSummary {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+    @Column(name = "next_booking_start")
+    private LocalDateTime nextBookingStart;
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+    @Column(name = "last_booking_end")
+    private LocalDateTime lastBookingEnd;
+    @Column(name = "next_change_at")
+    private LocalDateTime nextChangeAt;
+    @Column(name = "booking_count")
+    private long bookingCount;
+    @Column(name = "approved_count")
+    private long approvedCount;
+    @Version
+    private Long version;
+
+    public boolean isDue(LocalDateTime now) {
+        return nextChangeAt != null && !nextChangeAt.isAfter(now);
+    }
+}
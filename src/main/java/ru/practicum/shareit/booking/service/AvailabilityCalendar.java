@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.BookingView;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+@Component
+public class AvailabilityCalendar {
+    public static final String CACHE_NAME = "item-availability";
+    private static final List<Status> ACTIVE = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingStorage bookingStorage;
+    private final Cache<Long, NavigableMap<LocalDateTime, Busy>> calendars;
+
+    public AvailabilityCalendar(BookingStorage bookingStorage,
+                                MeterRegistry registry,
+                                @Value("${shareit.availability.maximum-items:10000}") long maximumItems,
+                                @Value("${shareit.availability.expire-after-write:PT1H}") Duration expireAfterWrite) {
+        this.bookingStorage = bookingStorage;
+        this.calendars = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumItems)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .<Long, NavigableMap<LocalDateTime, Busy>>build(), CACHE_NAME);
+    }
+
+    // Активные бронирования одной вещи не пересекаются, поэтому календарь хранит их по началу без слияния.
+    // Свободные окна - промежутки между ними: floorEntry и subMap дают O(log n + k).
+    public List<FreeSlotDto> getFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Busy> busy = calendars.get(itemId, this::load);
+        List<FreeSlotDto> slots = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        Map.Entry<LocalDateTime, Busy> before = busy.floorEntry(from);
+        if (before != null && before.getValue().end.isAfter(freeFrom)) {
+            freeFrom = before.getValue().end;
+        }
+        for (Map.Entry<LocalDateTime, Busy> entry : busy.subMap(from, false, to, false).entrySet()) {
+            if (entry.getKey().isAfter(freeFrom)) {
+                slots.add(FreeSlotDto.builder().start(freeFrom).end(entry.getKey()).build());
+            }
+            if (entry.getValue().end.isAfter(freeFrom)) {
+                freeFrom = entry.getValue().end;
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            slots.add(FreeSlotDto.builder().start(freeFrom).end(to).build());
+        }
+        return slots;
+    }
+
+    public void onCreated(Collection<Booking> bookings) {
+        afterCommit(() -> bookings.forEach(booking -> update(booking.getItem().getId(), busy ->
+                busy.put(booking.getStart(), new Busy(booking.getId(), booking.getEnd())))));
+    }
+
+    public void onRejected(Booking booking) {
+        afterCommit(() -> update(booking.getItem().getId(), busy ->
+                busy.computeIfPresent(booking.getStart(), (start, current) -> current.bookingId == booking.getId() ? null : current)));
+    }
+
+    public void invalidateAll() {
+        afterCommit(calendars::invalidateAll);
+    }
+
+    private NavigableMap<LocalDateTime, Busy> load(Long itemId) {
+        NavigableMap<LocalDateTime, Busy> busy = new ConcurrentSkipListMap<>();
+        for (BookingView booking : bookingStorage.findAllByItemIdAndStatusInAndEndAfter(itemId, ACTIVE, LocalDateTime.now())) {
+            busy.put(booking.getStart(), new Busy(booking.getId(), booking.getEnd()));
+        }
+        return busy;
+    }
+
+    // Календарь, который сейчас загружается, дождется загрузки: изменение применяется после нее.
+    // Заодно из календаря уходят завершившиеся бронирования - они лежат в его начале.
+    private void update(Long itemId, Consumer<NavigableMap<LocalDateTime, Busy>> change) {
+        calendars.asMap().computeIfPresent(itemId, (id, busy) -> {
+            change.accept(busy);
+            LocalDateTime now = LocalDateTime.now();
+            busy.headMap(now).values().removeIf(booking -> !booking.end.isAfter(now));
+            return busy;
+        });
+    }
+
+    // Обновление до коммита увидело бы бронирование, которое еще может откатиться.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Busy {
+        private final long bookingId;
+        private final LocalDateTime end;
+
+        private Busy(long bookingId, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.end = end;
+        }
+    }
+}
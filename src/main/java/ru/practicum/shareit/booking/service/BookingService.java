@@ -1,18 +1,29 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto create(BookingDtoRequest bookingDtoRequest, Long userId);
 
+    List<BookingDto> createAll(List<BookingDtoRequest> bookingDtoRequests, Long userId);
+
     BookingDto changeBookingStatus(Long userId, Long bookingId, Boolean approved);
 
     BookingDto getBooking(Long userId, Long bookingId);
 
-    List<BookingDto> getUserBookingsByState(Long userId, String state);
+    String getBookingTag(Long userId, Long bookingId);
+
+    Window<BookingDto> getUserBookingsByState(Long userId, String state, Integer from, Integer size, String cursor);
+
+    Window<BookingDto> getUserItemsBookingsByState(Long userId, String state, Integer from, Integer size, String cursor);
+
+    Consumer<OutputStream> exportUserBookings(Long userId);
 
-    List<BookingDto> getUserItemsBookingsByState(Long userId, String state);
+    Consumer<OutputStream> exportUserItemsBookings(Long userId);
 }
@@ -1,56 +1,123 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ETags;
+import ru.practicum.shareit.MetricsConfig;
+import ru.practicum.shareit.NdjsonExporter;
+import ru.practicum.shareit.Paging;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.event.BookingEvent;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.BookingVersion;
+import ru.practicum.shareit.booking.storage.BookingView;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.model.Status.*;
 
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private final BookingStorage bookingStorage;
     private final ItemStorage itemStorage;
+    private final UserService userService;
     private final UserStorage userStorage;
+    private final NdjsonExporter ndjsonExporter;
+    private final ItemBookingSummaryService summaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvailabilityCalendar availabilityCalendar;
 
     @Override
+    @Transactional
     public BookingDto create(BookingDtoRequest bookingDtoRequest, Long userId) {
-        Item item = itemStorage.findById(bookingDtoRequest.getItemId())
+        Item item = itemStorage.findByIdForUpdate(bookingDtoRequest.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь с id = " + " не найдена."));
         User booker = findUser(userId);
-        if (!item.isAvailable()) {
-            throw new ValidationException("Вещь недоступна для бронирования!");
-        }
-        if (booker.getId().equals(item.getOwner().getId())) {
-            throw new ValidationException("Пользователь не может забронировать свою вещь.");
-        }
-        if (bookingDtoRequest.getEnd().isBefore(LocalDateTime.now()) && bookingDtoRequest.getStart().isBefore(LocalDateTime.now())) {
-            throw new ValidationException("Даты начала и окончания бронирования не могут быть в прошлом.");
-        }
-        if (bookingDtoRequest.getEnd().isBefore(bookingDtoRequest.getStart())) {
-            throw new ValidationException("Дата окончания бронирования не может быть раньше начала.");
+        validateNewBooking(bookingDtoRequest, item, booker);
+        checkItemIsFree(item.getId(), 0, List.of(WAITING, APPROVED), bookingDtoRequest.getStart(), bookingDtoRequest.getEnd());
+        Booking booking = bookingStorage.save(toNewBooking(bookingDtoRequest, item, booker));
+        summaryService.onCreated(List.of(booking));
+        availabilityCalendar.onCreated(List.of(booking));
+        eventPublisher.publishEvent(BookingEvent.of(booking));
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDto> createAll(List<BookingDtoRequest> bookingDtoRequests, Long userId) {
+        User booker = findUser(userId);
+        Set<Long> itemIds = bookingDtoRequests.stream()
+                .map(BookingDtoRequest::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemStorage.findAllByIdInForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        // Вещи заблокированы, поэтому активные бронирования читаются одним запросом и сверяются в памяти.
+        LocalDateTime earliestStart = bookingDtoRequests.stream()
+                .map(BookingDtoRequest::getStart)
+                .min(LocalDateTime::compareTo)
+                .orElse(LocalDateTime.now());
+        Map<Long, List<BookingView>> activeByItem = bookingStorage
+                .findAllByItemIdInAndStatusInAndEndAfter(items.keySet(), List.of(WAITING, APPROVED), earliestStart).stream()
+                .collect(Collectors.groupingBy(BookingView::getItemId));
+        Map<Long, List<BookingDtoRequest>> acceptedByItem = new HashMap<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDtoRequest bookingDtoRequest : bookingDtoRequests) {
+            Item item = items.get(bookingDtoRequest.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Вещь с id = " + bookingDtoRequest.getItemId() + " не найдена.");
+            }
+            validateNewBooking(bookingDtoRequest, item, booker);
+            LocalDateTime start = bookingDtoRequest.getStart();
+            LocalDateTime end = bookingDtoRequest.getEnd();
+            List<BookingDtoRequest> accepted = acceptedByItem.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+            boolean overlaps = accepted.stream().anyMatch(other -> overlaps(other.getStart(), other.getEnd(), start, end))
+                    || activeByItem.getOrDefault(item.getId(), List.of()).stream()
+                    .anyMatch(other -> overlaps(other.getStart(), other.getEnd(), start, end));
+            if (overlaps) {
+                throw new ValidationException("Вещь уже забронирована на эти даты.");
+            }
+            accepted.add(bookingDtoRequest);
+            bookings.add(toNewBooking(bookingDtoRequest, item, booker));
         }
-        Booking booking = BookingMapper.toBooking(bookingDtoRequest, item);
-        booking.setBooker(booker);
-        booking.setStatus(WAITING);
-        return BookingMapper.toBookingDto(bookingStorage.save(booking));
+        bookings = bookingStorage.saveAll(bookings);
+        summaryService.onCreated(bookings);
+        availabilityCalendar.onCreated(bookings);
+        bookings.forEach(booking -> eventPublisher.publishEvent(BookingEvent.of(booking)));
+        return bookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public BookingDto changeBookingStatus(Long userId, Long bookingId, Boolean approved) {
         Booking booking = findBooking(bookingId);
         if (!booking.getItem().getOwner().getId().equals(userId)) {
@@ -60,14 +127,20 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Только статус WAITING может быть изменен.");
         }
         if (approved) {
+            itemStorage.findByIdForUpdate(booking.getItem().getId());
+            checkItemIsFree(booking.getItem().getId(), booking.getId(), List.of(APPROVED), booking.getStart(), booking.getEnd());
             booking.setStatus(APPROVED);
+            summaryService.onApproved(booking);
         } else {
             booking.setStatus(REJECTED);
+            availabilityCalendar.onRejected(booking);
         }
+        eventPublisher.publishEvent(BookingEvent.of(booking));
         return BookingMapper.toBookingDto(booking);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto getBooking(Long userId, Long bookingId) {
         Booking booking = findBooking(bookingId);
         findUser(userId);
@@ -78,71 +151,136 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getUserBookingsByState(Long userId, String state) {
+    @Transactional(readOnly = true)
+    public String getBookingTag(Long userId, Long bookingId) {
+        BookingVersion version = bookingStorage.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование с id = " + bookingId + " не найдено."));
+        findUser(userId);
+        if (!version.getBookerId().equals(userId) && !version.getOwnerId().equals(userId)) {
+            throw new ValidationException("Информацию о бронировании может получить только владелец вещи или арендатор.");
+        }
+        return ETags.of(bookingId, version.getBookingVersion(), version.getItemVersion());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<BookingDto> getUserBookingsByState(Long userId, String state, Integer from, Integer size, String cursor) {
         findUser(userId);
-        List<Booking> bookings;
+        ScrollPosition position = Paging.position(from, cursor, "start", LocalDateTime::parse);
+        Limit limit = Paging.limit(size);
+        LocalDateTime now = LocalDateTime.now();
+        Window<BookingView> bookings;
         switch (state.toUpperCase()) {
             case "ALL":
-                bookings = bookingStorage.findAllByBookerIdOrderByStartDesc(userId);
+                bookings = bookingStorage.findAllByBookerIdOrderByStartDescIdDesc(userId, position, limit);
                 break;
             case "CURRENT":
-                bookings = bookingStorage.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now());
+                bookings = bookingStorage.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(userId, now, now, position, limit);
                 break;
             case "PAST":
-                bookings = bookingStorage.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
+                bookings = bookingStorage.findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(userId, now, position, limit);
                 break;
             case "FUTURE":
-                bookings = bookingStorage.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
+                bookings = bookingStorage.findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(userId, now, position, limit);
                 break;
             case "WAITING":
-                bookings = bookingStorage.findAllByBookerIdAndStatusOrderByStartDesc(userId, WAITING);
+                bookings = bookingStorage.findAllByBookerIdAndStatusOrderByStartDescIdDesc(userId, WAITING, position, limit);
                 break;
             case "REJECTED":
-                bookings = bookingStorage.findAllByBookerIdAndStatusOrderByStartDesc(userId, REJECTED);
+                bookings = bookingStorage.findAllByBookerIdAndStatusOrderByStartDescIdDesc(userId, REJECTED, position, limit);
                 break;
             default:
                 throw new ValidationException("State не распознано.");
         }
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return bookings.map(BookingMapper::toBookingDto);
     }
 
     @Override
-    public List<BookingDto> getUserItemsBookingsByState(Long userId, String state) {
+    @Transactional(readOnly = true)
+    public Window<BookingDto> getUserItemsBookingsByState(Long userId, String state, Integer from, Integer size, String cursor) {
         findUser(userId);
-        List<Booking> bookings;
+        ScrollPosition position = Paging.position(from, cursor, "start", LocalDateTime::parse);
+        Limit limit = Paging.limit(size);
+        LocalDateTime now = LocalDateTime.now();
+        Window<BookingView> bookings;
         switch (state.toUpperCase()) {
             case "ALL":
-                bookings = bookingStorage.findAllByItemOwnerIdOrderByStartDesc(userId);
+                bookings = bookingStorage.findAllByItemOwnerIdOrderByStartDescIdDesc(userId, position, limit);
                 break;
             case "CURRENT":
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now());
+                bookings = bookingStorage.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(userId, now, now, position, limit);
                 break;
             case "PAST":
-                bookings = bookingStorage.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
+                bookings = bookingStorage.findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(userId, now, position, limit);
                 break;
             case "FUTURE":
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
+                bookings = bookingStorage.findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(userId, now, position, limit);
                 break;
             case "WAITING":
-                bookings = bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, WAITING);
+                bookings = bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(userId, WAITING, position, limit);
                 break;
             case "REJECTED":
-                bookings = bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, REJECTED);
+                bookings = bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(userId, REJECTED, position, limit);
                 break;
             default:
                 throw new ValidationException("State не распознано.");
         }
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return bookings.map(BookingMapper::toBookingDto);
+    }
+
+    @Override
+    public Consumer<OutputStream> exportUserBookings(Long userId) {
+        findUser(userId);
+        return ndjsonExporter.export(() -> bookingStorage.streamAllByBookerIdOrderByStartDescIdDesc(userId), BookingMapper::toBookingDto);
+    }
+
+    @Override
+    public Consumer<OutputStream> exportUserItemsBookings(Long userId) {
+        findUser(userId);
+        return ndjsonExporter.export(() -> bookingStorage.streamAllByItemOwnerIdOrderByStartDescIdDesc(userId), BookingMapper::toBookingDto);
+    }
+
+    private void validateNewBooking(BookingDtoRequest bookingDtoRequest, Item item, User booker) {
+        if (!item.isAvailable()) {
+            throw new ValidationException("Вещь недоступна для бронирования!");
+        }
+        if (booker.getId().equals(item.getOwner().getId())) {
+            throw new ValidationException("Пользователь не может забронировать свою вещь.");
+        }
+        if (bookingDtoRequest.getEnd().isBefore(LocalDateTime.now()) && bookingDtoRequest.getStart().isBefore(LocalDateTime.now())) {
+            throw new ValidationException("Даты начала и окончания бронирования не могут быть в прошлом.");
+        }
+        if (!bookingDtoRequest.getEnd().isAfter(bookingDtoRequest.getStart())) {
+            throw new ValidationException("Дата окончания бронирования должна быть позже начала.");
+        }
+    }
+
+    private Booking toNewBooking(BookingDtoRequest bookingDtoRequest, Item item, User booker) {
+        Booking booking = BookingMapper.toBooking(bookingDtoRequest, item);
+        booking.setBooker(booker);
+        booking.setStatus(WAITING);
+        return booking;
+    }
+
+    private static boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+
+    // Брони из проверяемых статусов между собой не пересекаются: их так же проверяли при создании и подтверждении.
+    // Значит, с [start, end) может пересечься только последняя бронь, начавшаяся до end, и ее достаточно сравнить по окончанию.
+    private void checkItemIsFree(Long itemId, long bookingId, List<Status> statuses, LocalDateTime start, LocalDateTime end) {
+        for (Status status : statuses) {
+            List<LocalDateTime> ends = bookingStorage.findEndsStartingBefore(itemId, bookingId, status, end, Limit.of(1));
+            if (!ends.isEmpty() && ends.get(0).isAfter(start)) {
+                throw new ValidationException("Вещь уже забронирована на эти даты.");
+            }
+        }
     }
 
+    // Существование проверяется через кэш пользователей, а в бронирование попадает ссылка без чтения строки.
     private User findUser(Long userId) {
-        User user = userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден."));
-        return user;
+        userService.getById(userId);
+        return userStorage.getReferenceById(userId);
     }
 
     private Booking findBooking(Long bookingId) {
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingSummaryService {
+    void onCreated(Collection<Booking> bookings);
+
+    void onApproved(Booking booking);
+
+    Map<Long, ItemBookingSummary> getCurrent(Collection<Long> itemIds);
+
+    int sweep(LocalDateTime now);
+
+    void rebuild(Collection<Long> itemIds);
+}
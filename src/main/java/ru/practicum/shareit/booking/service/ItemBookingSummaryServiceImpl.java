@@ -0,0 +1,174 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.ItemBookingCount;
+import ru.practicum.shareit.booking.storage.ItemBookingSummaryStorage;
+import ru.practicum.shareit.booking.storage.ItemBookingTime;
+import ru.practicum.shareit.booking.storage.NearestBooking;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.booking.model.Status.APPROVED;
+
+@Service
+@RequiredArgsConstructor
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    private static final int SWEEP_BATCH = 500;
+
+    private final ItemBookingSummaryStorage summaryStorage;
+    private final BookingStorage bookingStorage;
+    private final ItemStorage itemStorage;
+
+    @Override
+    @Transactional
+    public void onCreated(Collection<Booking> bookings) {
+        Map<Long, Long> created = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), Collectors.counting()));
+        Map<Long, ItemBookingSummary> summaries = findOrCreate(created.keySet());
+        created.forEach((itemId, count) -> {
+            ItemBookingSummary summary = summaries.get(itemId);
+            summary.setBookingCount(summary.getBookingCount() + count);
+        });
+        summaryStorage.saveAll(summaries.values());
+    }
+
+    @Override
+    @Transactional
+    public void onApproved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        ItemBookingSummary summary = findOrCreate(List.of(itemId)).get(itemId);
+        summary.setApprovedCount(summary.getApprovedCount() + 1);
+        LocalDateTime now = LocalDateTime.now();
+        if (summary.isDue(now)) {
+            recalculate(List.of(summary), now);
+        } else {
+            if (booking.getStart().isAfter(now)
+                    && (summary.getNextBookingStart() == null || booking.getStart().isBefore(summary.getNextBookingStart()))) {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookingStart(booking.getStart());
+            }
+            if (booking.getEnd().isBefore(now)
+                    && (summary.getLastBookingEnd() == null || booking.getEnd().isAfter(summary.getLastBookingEnd()))) {
+                summary.setLastBookingId(booking.getId());
+                summary.setLastBookingEnd(booking.getEnd());
+            }
+            summary.setNextChangeAt(earliest(summary.getNextChangeAt(), future(booking.getStart(), now)));
+            summary.setNextChangeAt(earliest(summary.getNextChangeAt(), future(booking.getEnd(), now)));
+        }
+        summaryStorage.save(summary);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ItemBookingSummary> getCurrent(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        List<ItemBookingSummary> due = summaryStorage.findAllByItemIdIn(itemIds).stream()
+                .peek(summary -> summaries.put(summary.getItemId(), summary))
+                .filter(summary -> summary.isDue(now))
+                .map(summary -> ItemBookingSummary.builder()
+                        .itemId(summary.getItemId())
+                        .bookingCount(summary.getBookingCount())
+                        .approvedCount(summary.getApprovedCount())
+                        .build())
+                .collect(Collectors.toList());
+        if (!due.isEmpty()) {
+            recalculate(due, now);
+            due.forEach(summary -> summaries.put(summary.getItemId(), summary));
+        }
+        return summaries;
+    }
+
+    @Override
+    @Transactional
+    public int sweep(LocalDateTime now) {
+        List<Long> itemIds = summaryStorage.findDueItemIds(now, Limit.of(SWEEP_BATCH));
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        itemStorage.findAllByIdInForUpdate(itemIds);
+        recalculate(summaryStorage.findAllById(itemIds), now);
+        return itemIds.size();
+    }
+
+    @Override
+    @Transactional
+    public void rebuild(Collection<Long> itemIds) {
+        Map<Long, ItemBookingSummary> summaries = findOrCreate(itemIds);
+        // У вещи могло не остаться бронирований, тогда счетчик не придет из запроса.
+        for (ItemBookingSummary summary : summaries.values()) {
+            summary.setBookingCount(0);
+            summary.setApprovedCount(0);
+        }
+        for (ItemBookingCount count : bookingStorage.countByItemIds(itemIds, APPROVED)) {
+            ItemBookingSummary summary = summaries.get(count.getItemId());
+            summary.setBookingCount(count.getTotal());
+            summary.setApprovedCount(count.getApproved());
+        }
+        recalculate(summaries.values(), LocalDateTime.now());
+        summaryStorage.saveAll(summaries.values());
+    }
+
+    private Map<Long, ItemBookingSummary> findOrCreate(Collection<Long> itemIds) {
+        Map<Long, ItemBookingSummary> summaries = summaryStorage.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        for (Long itemId : itemIds) {
+            summaries.computeIfAbsent(itemId, id -> ItemBookingSummary.builder().itemId(id).build());
+        }
+        return summaries;
+    }
+
+    private void recalculate(Collection<ItemBookingSummary> summaries, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> byItem = new HashMap<>();
+        for (ItemBookingSummary summary : summaries) {
+            summary.setNextBookingId(null);
+            summary.setNextBookingStart(null);
+            summary.setLastBookingId(null);
+            summary.setLastBookingEnd(null);
+            summary.setNextChangeAt(null);
+            byItem.put(summary.getItemId(), summary);
+        }
+        for (NearestBooking booking : bookingStorage.findNextAndLastBookings(byItem.keySet(), now)) {
+            ItemBookingSummary summary = byItem.get(booking.getItemId());
+            if (booking.getStartDate().isAfter(now)) {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookingStart(booking.getStartDate());
+                summary.setNextChangeAt(earliest(summary.getNextChangeAt(), booking.getStartDate()));
+            } else {
+                summary.setLastBookingId(booking.getId());
+                summary.setLastBookingEnd(booking.getEndDate());
+            }
+        }
+        for (ItemBookingTime nextEnd : bookingStorage.findNextEnds(byItem.keySet(), APPROVED, now)) {
+            ItemBookingSummary summary = byItem.get(nextEnd.getItemId());
+            summary.setNextChangeAt(earliest(summary.getNextChangeAt(), nextEnd.getTime()));
+        }
+    }
+
+    private LocalDateTime future(LocalDateTime time, LocalDateTime now) {
+        return time.isAfter(now) ? time : null;
+    }
+
+    private LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return first.isBefore(second) ? first : second;
+    }
+}
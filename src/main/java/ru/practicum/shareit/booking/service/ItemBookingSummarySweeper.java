@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummarySweeper {
+    private final ItemBookingSummaryService summaryService;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.sweep-delay:PT1M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int swept;
+        do {
+            swept = summaryService.sweep(now);
+            total += swept;
+        } while (swept > 0);
+        if (total > 0) {
+            log.debug("Обновлены сводки бронирований для {} вещей", total);
+        }
+    }
+}
@@ -1,34 +1,84 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.StorageHints;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface BookingStorage extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId);
+    String BOOKING_GRAPH = "Booking.withItemAndBooker";
+
+    @Override
+    @EntityGraph(BOOKING_GRAPH)
+    Optional<Booking> findById(Long id);
+
+    Window<BookingView> findAllByBookerIdOrderByStartDescIdDesc(Long bookerId, ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(Long bookerId, LocalDateTime start, LocalDateTime end,
+                                                                                    ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long bookerId, LocalDateTime end, ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(Long bookerId, LocalDateTime start, ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByBookerIdAndStatusOrderByStartDescIdDesc(Long bookerId, Status status, ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime start, LocalDateTime end,
+                                                                                       ScrollPosition position, Limit limit);
+
+    Window<BookingView> findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(Long ownerId, LocalDateTime end, ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime start, LocalDateTime end);
+    Window<BookingView> findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime start, ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end);
+    Window<BookingView> findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId, Status status, ScrollPosition position, Limit limit);
 
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start);
+    @EntityGraph(BOOKING_GRAPH)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = StorageHints.EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByBookerIdOrderByStartDescIdDesc(Long bookerId);
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, Status status);
+    @EntityGraph(BOOKING_GRAPH)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = StorageHints.EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByItemOwnerIdOrderByStartDescIdDesc(Long ownerId);
 
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long bookerId);
+    @Query("select b.version as bookingVersion, i.version as itemVersion, b.booker.id as bookerId, i.owner.id as ownerId " +
+            "from Booking as b join b.item as i where b.id = :id")
+    Optional<BookingVersion> findVersionById(@Param("id") Long id);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime start, LocalDateTime end);
+    // Окончания броней вещи с началом до :end, от поздних к ранним: с Limit.of(1) это один шаг по (item_id, status, start_date).
+    @Query("select b.end from Booking as b " +
+            "where b.item.id = :itemId and b.id <> :bookingId and b.status = :status and b.start < :end " +
+            "order by b.start desc")
+    List<LocalDateTime> findEndsStartingBefore(@Param("itemId") Long itemId,
+                                               @Param("bookingId") long bookingId,
+                                               @Param("status") Status status,
+                                               @Param("end") LocalDateTime end,
+                                               Limit limit);
 
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end);
+    List<BookingView> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<Status> statuses, LocalDateTime end);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start);
+    List<BookingView> findAllByItemIdInAndStatusInAndEndAfter(Collection<Long> itemIds, Collection<Status> statuses, LocalDateTime end);
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long bookerId, Status status);
+    @Query("select distinct b.item.id from Booking as b where b.booker.id = :bookerId")
+    List<Long> findItemIdsByBookerId(@Param("bookerId") Long bookerId);
 
     List<Booking> findAllByBookerIdAndItemIdAndEndBefore(Long userId, Long itemId, LocalDateTime time);
 
@@ -36,6 +86,31 @@ public interface BookingStorage extends JpaRepository<Booking, Long> {
 
     Booking findTop1ByItemIdAndEndBeforeAndStatusOrderByEndDesc(Long itemId, LocalDateTime time, Status status);
 
-    @Query("select b from Booking as b where b.item.id in :itemIds")
-    List<Booking> findAllByItemIdOrderByStartAsc(@Param("itemIds") List<Long> itemIds);
+    // Столбцы бронирований берутся прямо из оконного запроса, без второго обращения за сущностями.
+    @Query(value = "SELECT id, item_id AS itemId, start_date AS startDate, end_date AS endDate FROM (" +
+            "  SELECT b.id, b.item_id, b.start_date, b.end_date," +
+            "    ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date) AS rn" +
+            "  FROM bookings AS b" +
+            "  WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date > :now" +
+            ") AS next_bookings WHERE rn = 1 " +
+            "UNION ALL " +
+            "SELECT id, item_id AS itemId, start_date AS startDate, end_date AS endDate FROM (" +
+            "  SELECT b.id, b.item_id, b.start_date, b.end_date," +
+            "    ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC) AS rn" +
+            "  FROM bookings AS b" +
+            "  WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.end_date < :now" +
+            ") AS last_bookings WHERE rn = 1", nativeQuery = true)
+    List<NearestBooking> findNextAndLastBookings(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    @Query("select b.item.id as itemId, min(b.end) as time from Booking as b " +
+            "where b.item.id in :itemIds and b.status = :status and b.end > :now group by b.item.id")
+    List<ItemBookingTime> findNextEnds(@Param("itemIds") Collection<Long> itemIds, @Param("status") Status status,
+                                       @Param("now") LocalDateTime now);
+
+    @Query("select b.item.id as itemId, count(b) as total, " +
+            "sum(case when b.status = :status then 1 else 0 end) as approved " +
+            "from Booking as b where b.item.id in :itemIds group by b.item.id")
+    List<ItemBookingCount> countByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("status") Status status);
+
+    List<BookingView> findAllByIdIn(Collection<Long> ids);
 }
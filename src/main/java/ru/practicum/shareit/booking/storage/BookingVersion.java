@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.storage;
+
+public interface BookingVersion {
+    Long getBookingVersion();
+
+    Long getItemVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+public interface BookingView {
+    Long getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Status getStatus();
+
+    Long getItemId();
+
+    String getItemName();
+
+    Long getBookerId();
+}
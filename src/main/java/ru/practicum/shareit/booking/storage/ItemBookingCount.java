@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.storage;
+
+public interface ItemBookingCount {
+    Long getItemId();
+
+    Long getTotal();
+
+    Long getApproved();
+}
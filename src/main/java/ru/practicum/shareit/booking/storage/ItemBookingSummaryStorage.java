@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryStorage extends JpaRepository<ItemBookingSummary, Long> {
+    List<ItemBookingSummary> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select s.itemId from ItemBookingSummary as s where s.nextChangeAt <= :now order by s.nextChangeAt")
+    List<Long> findDueItemIds(@Param("now") LocalDateTime now, Limit limit);
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDateTime;
+
+public interface ItemBookingTime {
+    Long getItemId();
+
+    LocalDateTime getTime();
+}
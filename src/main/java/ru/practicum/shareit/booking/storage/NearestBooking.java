@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDateTime;
+
+public interface NearestBooking {
+    Long getId();
+
+    Long getItemId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
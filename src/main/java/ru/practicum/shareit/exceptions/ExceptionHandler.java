@@ -1,7 +1,10 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -29,6 +32,25 @@ public class ExceptionHandler {
         return response;
     }
 
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    public ResponseEntity<Map<String, String>> dealWithTooManyRequestsException(TooManyRequestsException e) {
+        Map<String, String> response = new HashMap<>();
+        log.warn("error", e.getMessage());
+        response.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> dealWithOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        Map<String, String> response = new HashMap<>();
+        log.warn("error", e.getMessage());
+        response.put("error", "Данные были изменены параллельным запросом, повторите попытку.");
+        return response;
+    }
+
     @org.springframework.web.bind.annotation.ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> dealWithAnyException(Throwable e) {
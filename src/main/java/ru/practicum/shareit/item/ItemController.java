@@ -1,13 +1,25 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.practicum.shareit.BatchLimit;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.NdjsonExporter;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.RankedItem;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -16,31 +28,71 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemService itemService;
+    private final BatchLimit batchLimit;
+    private final NdjsonExporter ndjsonExporter;
 
     @GetMapping
-    public Collection<ItemDtoWithBooking> returnItemsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Collection<ItemDtoWithBooking> returnItemsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId, WebRequest request) {
+        if (request.checkNotModified(itemService.getOwnerItemsTag(userId))) {
+            return null;
+        }
         return itemService.getByOwner(userId);
     }
 
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportItemsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId, HttpServletResponse response) {
+        return ndjsonExporter.response(response, itemService.exportByOwner(userId));
+    }
+
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody ItemDto item) {
         return itemService.create(item, userId);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createAll(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody List<ItemDto> items) {
+        batchLimit.check(items);
+        return itemService.createAll(items, userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId, @RequestBody ItemDto newItem) {
         return itemService.update(newItem, userId, itemId);
     }
 
     @GetMapping("{itemId}")
-    public ItemDtoWithBooking getItemById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
+    public ItemDtoWithBooking getItemById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId,
+                                          WebRequest request) {
+        if (request.checkNotModified(itemService.getItemTag(userId, itemId))) {
+            return null;
+        }
         return itemService.getById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getAvailability(@PathVariable Long itemId,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        return itemService.search(text);
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String text,
+                                                     @RequestParam(name = "start", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                     @RequestParam(name = "end", required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                     @RequestParam(name = "size", required = false) Integer size,
+                                                     @RequestParam(name = "cursor", required = false) String cursor) {
+        Window<ItemDto> items = itemService.search(text, start, end, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, KeysetCursor.encode(items.positionAt(items.size() - 1), RankedItem.RELEVANCE));
+        }
+        return response.body(items.getContent());
     }
 
     @PostMapping("/{itemId}/comment")
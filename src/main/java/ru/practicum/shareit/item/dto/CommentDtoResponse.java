@@ -2,8 +2,6 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.item.model.Item;
-
 import java.time.LocalDateTime;
 
 @Data
@@ -13,7 +11,7 @@ public class CommentDtoResponse {
 
     private String text;
 
-    private Item item;
+    private Long itemId;
 
     private String authorName;
 
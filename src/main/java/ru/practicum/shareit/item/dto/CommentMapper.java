@@ -12,7 +12,7 @@ public class CommentMapper {
                 .id(comment.getId())
                 .text(comment.getText())
                 .authorName(comment.getAuthor().getName())
-                .item(comment.getItem())
+                .itemId(comment.getItem().getId())
                 .created(comment.getCreated())
                 .build();
     }
@@ -2,8 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.booking.dto.BookingDto;
 
 import java.util.List;
 
@@ -14,9 +13,8 @@ public class ItemDtoWithBooking {
     private String name;
     private String description;
     private Boolean available;
-    private User owner;
     private Long requestId;
-    private Booking nextBooking;
-    private Booking lastBooking;
+    private BookingDto nextBooking;
+    private BookingDto lastBooking;
     private List<CommentDtoResponse> comments;
 }
@@ -1,6 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
@@ -30,7 +30,7 @@ public class ItemMapper {
                 .build();
     }
 
-    public static ItemDtoWithBooking toItemDtoWithBooking(Item item, Booking nextBooking, Booking lastBooking, List<CommentDtoResponse> comments) {
+    public static ItemDtoWithBooking toItemDtoWithBooking(Item item, BookingDto nextBooking, BookingDto lastBooking, List<CommentDtoResponse> comments) {
         return ItemDtoWithBooking.builder()
                 .id(item.getId())
                 .name(item.getName())
@@ -6,26 +6,40 @@ import lombok.Builder;
 import lombok.Data;
 
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = "Comment.withItemAndAuthor",
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("author")
+        },
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("request")
+        }))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "comments")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
     @Column(length = 512, nullable = false)
     private String text;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
     @Column(name = "created")
@@ -1,22 +1,37 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto create(ItemDto itemDto, Long ownerId);
 
+    List<ItemDto> createAll(List<ItemDto> itemDtos, Long ownerId);
+
     ItemDtoWithBooking getById(Long userId, Long id);
 
+    String getItemTag(Long userId, Long id);
+
     ItemDto update(ItemDto itemDto, Long ownerId, Long itemId);
 
     List<ItemDtoWithBooking> getByOwner(Long ownerId);
 
-    List<ItemDto> search(String text);
+    String getOwnerItemsTag(Long ownerId);
+
+    Consumer<OutputStream> exportByOwner(Long ownerId);
+
+    Window<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, Integer size, String cursor);
+
+    List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentDtoResponse addComment(CommentDtoRequest commentDtoRequest, Long itemId, Long userId);
 }
\ No newline at end of file
@@ -1,9 +1,26 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ETags;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.MetricsConfig;
+import ru.practicum.shareit.NdjsonExporter;
+import ru.practicum.shareit.Paging;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.AvailabilityCalendar;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.exceptions.EmptyInformationException;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -11,57 +28,110 @@ import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentStorage;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.item.storage.ItemVersion;
+import ru.practicum.shareit.item.storage.OwnerItemsVersion;
+import ru.practicum.shareit.item.storage.RankedItem;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserDto;
-import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int SEARCH_LIMIT = 100;
 
     private final ItemStorage itemStorage;
     private final UserService userService;
+    private final UserStorage userStorage;
     private final BookingStorage bookingStorage;
     private final CommentStorage commentStorage;
+    private final NdjsonExporter ndjsonExporter;
+    private final ItemBookingSummaryService summaryService;
+    private final ItemRequestStorage itemRequestStorage;
+    private final SearchCache searchCache;
+    private final AvailabilityCalendar availabilityCalendar;
 
     @Override
     @Transactional
     public ItemDto create(ItemDto itemDto, Long ownerId) {
-        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
-            throw new EmptyInformationException("Имя не может быть пустым.");
-        }
-        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
-            throw new EmptyInformationException("Описание не может быть пустым");
-        }
-        if (itemDto.getAvailable() == null) {
-            throw new EmptyInformationException("Статус не может быть пустым");
-        }
-        User owner = UserMapper.toUser(userService.getById(ownerId));
-        Item item = ItemMapper.toItem(itemDto, owner, null);
+        validateNewItem(itemDto);
+        User owner = findUser(ownerId);
+        ItemRequest request = itemDto.getRequestId() != null ? findRequests(Set.of(itemDto.getRequestId())).get(itemDto.getRequestId()) : null;
+        Item item = ItemMapper.toItem(itemDto, owner, request);
+        searchCache.invalidate();
         return ItemMapper.toItemDto(itemStorage.save(item));
     }
 
     @Override
     @Transactional
+    public List<ItemDto> createAll(List<ItemDto> itemDtos, Long ownerId) {
+        itemDtos.forEach(this::validateNewItem);
+        User owner = findUser(ownerId);
+        Map<Long, ItemRequest> requests = findRequests(itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        List<Item> items = itemDtos.stream()
+                .map(itemDto -> ItemMapper.toItem(itemDto, owner, itemDto.getRequestId() != null ? requests.get(itemDto.getRequestId()) : null))
+                .collect(Collectors.toList());
+        searchCache.invalidate();
+        return itemStorage.saveAll(items).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public ItemDtoWithBooking getById(Long userId, Long id) {
         Item item = getItem(id);
         List<CommentDtoResponse> comments = commentStorage.findAllByItemId(id).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
-        return ItemMapper.toItemDtoWithBooking(item, null, null, comments);
+        if (!item.getOwner().getId().equals(userId)) {
+            return ItemMapper.toItemDtoWithBooking(item, null, null, comments);
+        }
+        ItemBookingSummary summary = summaryService.getCurrent(List.of(id)).getOrDefault(id, new ItemBookingSummary());
+        Map<Long, BookingDto> bookings = findSummaryBookings(List.of(summary));
+        return ItemMapper.toItemDtoWithBooking(item, bookings.get(summary.getNextBookingId()),
+                bookings.get(summary.getLastBookingId()), comments);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getItemTag(Long userId, Long id) {
+        ItemVersion version = itemStorage.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException("Вещь с id = " + id + " не найдена"));
+        if (!version.getOwnerId().equals(userId)) {
+            return ETags.of(id, version.getVersion(), version.getAuthorVersionSum(), version.getCommentCount(),
+                    version.getMaxCommentId());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextChangeAt = version.getNextChangeAt();
+        // Пока сводка не пересчитана, next/last вычисляются на лету, и ответ может меняться без смены версии.
+        return ETags.of(id, version.getVersion(), version.getAuthorVersionSum(), version.getCommentCount(),
+                version.getMaxCommentId(), version.getBookingCount(), version.getMaxBookingId(), userId,
+                nextChangeAt != null && !nextChangeAt.isAfter(now) ? now : nextChangeAt);
     }
 
     @Override
     @Transactional
     public ItemDto update(ItemDto itemDto, Long ownerId, Long itemId) {
-        Item item = getItem(itemId);
+        // Бронирования и отзывы поднимают версию вещи под блокировкой, поэтому PATCH берет ту же блокировку.
+        Item item = itemStorage.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь с id = " + itemId + " не найдена"));
         if (!item.getOwner().getId().equals(ownerId)) {
             throw new NotFoundException("Изменять товар может только его владелец.");
         }
@@ -74,11 +144,12 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
+        searchCache.invalidate();
         return ItemMapper.toItemDto(itemStorage.save(item));
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ItemDtoWithBooking> getByOwner(Long ownerId) {
         userService.getById(ownerId);
         List<Item> items = itemStorage.findByOwnerId(ownerId);
@@ -86,9 +157,11 @@ public class ItemServiceImpl implements ItemService {
                 .map(Item::getId)
                 .collect(Collectors.toList());
         List<ItemDtoWithBooking> itemsForResponse = new ArrayList<>();
-        List<Booking> bookings = bookingStorage.findAllByItemIdOrderByStartAsc(itemIds);
-        Map<Long, List<Booking>> bookingMap = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        if (items.isEmpty()) {
+            return itemsForResponse;
+        }
+        Map<Long, ItemBookingSummary> summaries = summaryService.getCurrent(itemIds);
+        Map<Long, BookingDto> bookings = findSummaryBookings(summaries.values());
         List<Comment> comments = commentStorage.findAllByItemIdIn(itemIds);
         Map<Long, List<CommentDtoResponse>> commentsMap = comments.stream()
                 .collect(Collectors.groupingBy(
@@ -96,36 +169,73 @@ public class ItemServiceImpl implements ItemService {
                         Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
         for (Item item : items) {
             List<CommentDtoResponse> itemComments = commentsMap.get(item.getId());
-            List<Booking> itemBookings;
-            if (bookingMap.get(item.getId()) == null) {
-                itemBookings = Collections.emptyList();
-            } else {
-                itemBookings = bookingMap.get(item.getId());
-            }
-            Booking nextBooking = itemBookings.stream()
-                    .filter(b -> b.getStart().isAfter(LocalDateTime.now()))
-                    .min(Comparator.comparing(Booking::getStart))
-                    .orElse(null);
-            Booking lastBooking = itemBookings.stream()
-                    .filter(b -> b.getEnd().isBefore(LocalDateTime.now()))
-                    .max(Comparator.comparing(Booking::getEnd))
-                    .orElse(null);
-            ItemDtoWithBooking itemToList = ItemMapper.toItemDtoWithBooking(item, nextBooking, lastBooking, itemComments);
+            ItemBookingSummary summary = summaries.getOrDefault(item.getId(), new ItemBookingSummary());
+            ItemDtoWithBooking itemToList = ItemMapper.toItemDtoWithBooking(item, bookings.get(summary.getNextBookingId()),
+                    bookings.get(summary.getLastBookingId()), itemComments);
             itemsForResponse.add(itemToList);
         }
         return itemsForResponse;
     }
 
     @Override
-    @Transactional
-    public List<ItemDto> search(String text) {
+    @Transactional(readOnly = true)
+    public String getOwnerItemsTag(Long ownerId) {
+        userService.getById(ownerId);
+        OwnerItemsVersion version = itemStorage.findOwnerItemsVersion(ownerId, Status.APPROVED, LocalDateTime.now());
+        return ETags.of(ownerId, version.getItemCount(), version.getVersionSum(), version.getAuthorVersionSum(),
+                version.getCommentCount(), version.getMaxCommentId(), version.getBookingCount(), version.getMaxBookingId(),
+                version.getNextStart(), version.getNextEnd());
+    }
+
+    @Override
+    public Consumer<OutputStream> exportByOwner(Long ownerId) {
+        userService.getById(ownerId);
+        return ndjsonExporter.export(() -> itemStorage.streamAllByOwnerIdOrderById(ownerId), ItemMapper::toItemDto);
+    }
+
+    // Без транзакции: попадание в кэш не берет соединение, а промах выполняется в read-only транзакции репозитория.
+    @Override
+    public Window<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, Integer size, String cursor) {
+        Limit requested = Paging.limit(size);
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Период поиска должен содержать и начало, и окончание.");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания.");
+        }
         if (text == null || text.isBlank()) {
-            return new ArrayList<>();
+            return Window.from(List.of(), ScrollPosition::offset);
         }
-        return itemStorage.search(text).stream()
-                .filter(Item::isAvailable)
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        // Без size возвращаются все совпадения, SEARCH_LIMIT ограничивает только постраничный запрос.
+        Limit limit = requested.isLimited() ? Limit.of(Math.min(requested.max(), SEARCH_LIMIT)) : requested;
+        KeysetScrollPosition position = cursor != null ? KeysetCursor.decode(cursor, RankedItem.RELEVANCE, Integer::parseInt)
+                : ScrollPosition.forward(Map.of(RankedItem.RELEVANCE, -1, KeysetCursor.ID, 0L));
+        int relevance = (Integer) position.getKeys().get(RankedItem.RELEVANCE);
+        long id = (Long) position.getKeys().get(KeysetCursor.ID);
+        if (start != null) {
+            // Свободность зависит от подтверждений бронирований, которые не меняют версию каталога, поэтому мимо кэша.
+            String normalized = SearchCache.normalize(text);
+            return toSearchWindow(itemStorage.searchFree(normalized, start, end, Status.APPROVED, relevance, id, lookAhead(limit)), limit);
+        }
+        return searchCache.get(text, size == null ? null : limit.max(), cursor, normalized ->
+                toSearchWindow(itemStorage.search(normalized, relevance, id, lookAhead(limit)), limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания.");
+        }
+        if (!itemStorage.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+        }
+        // Прошедшие бронирования в календарь не загружаются, поэтому окна считаются только с текущего момента.
+        LocalDateTime now = LocalDateTime.now();
+        if (!to.isAfter(now)) {
+            return List.of();
+        }
+        return availabilityCalendar.getFreeSlots(itemId, from.isBefore(now) ? now : from, to);
     }
 
     @Override
@@ -134,16 +244,74 @@ public class ItemServiceImpl implements ItemService {
         if (commentDtoRequest.getText() == null || commentDtoRequest.getText().isBlank()) {
             throw new ValidationException("Текст комментария не может быть пустым.");
         }
-        UserDto authorDto = userService.getById(userId);
-        Item item = getItem(itemId);
+        User author = findUser(userId);
+        Item item = itemStorage.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь с id = " + itemId + " не найдена"));
         List<Booking> bookings = bookingStorage.findAllByBookerIdAndItemIdAndEndBefore(userId, itemId, LocalDateTime.now());
         if (bookings.isEmpty()) {
             throw new ValidationException("Пользователь с id =  " + userId + " никогда не арендовал вещь с id = " + itemId);
         }
-        Comment comment = commentStorage.save(CommentMapper.toComment(commentDtoRequest, UserMapper.toUser(authorDto), item, LocalDateTime.now()));
+        Comment comment = commentStorage.save(CommentMapper.toComment(commentDtoRequest, author, item, LocalDateTime.now()));
         return CommentMapper.toCommentDto(comment);
     }
 
+    private void validateNewItem(ItemDto itemDto) {
+        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
+            throw new EmptyInformationException("Имя не может быть пустым.");
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
+            throw new EmptyInformationException("Описание не может быть пустым");
+        }
+        if (itemDto.getAvailable() == null) {
+            throw new EmptyInformationException("Статус не может быть пустым");
+        }
+    }
+
+    private Map<Long, BookingDto> findSummaryBookings(Collection<ItemBookingSummary> summaries) {
+        List<Long> bookingIds = summaries.stream()
+                .flatMap(summary -> Stream.of(summary.getNextBookingId(), summary.getLastBookingId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, BookingDto> bookings = new HashMap<>();
+        if (!bookingIds.isEmpty()) {
+            bookingStorage.findAllByIdIn(bookingIds).forEach(booking -> bookings.put(booking.getId(), BookingMapper.toBookingDto(booking)));
+        }
+        return bookings;
+    }
+
+    // Лишняя строка показывает, есть ли следующая страница; СУБД сортирует только top-K совпадений.
+    // Лишняя запись показывает, есть ли следующая страница.
+    private static Limit lookAhead(Limit limit) {
+        return limit.isLimited() ? Limit.of(limit.max() + 1) : limit;
+    }
+
+    private Window<ItemDto> toSearchWindow(List<RankedItem> found, Limit limit) {
+        int max = limit.isLimited() ? limit.max() : found.size();
+        List<RankedItem> page = found.subList(0, Math.min(max, found.size()));
+        List<ItemDto> items = page.stream()
+                .map(rankedItem -> ItemMapper.toItemDto(rankedItem.getItem()))
+                .collect(Collectors.toUnmodifiableList());
+        return Window.from(items, index -> ScrollPosition.forward(Map.of(
+                RankedItem.RELEVANCE, page.get(index).getRelevance(),
+                KeysetCursor.ID, page.get(index).getItem().getId())), found.size() > max);
+    }
+
+    private Map<Long, ItemRequest> findRequests(Set<Long> requestIds) {
+        Map<Long, ItemRequest> requests = itemRequestStorage.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        for (Long requestId : requestIds) {
+            if (!requests.containsKey(requestId)) {
+                throw new NotFoundException("Запрос с id = " + requestId + " не найден.");
+            }
+        }
+        return requests;
+    }
+
+    private User findUser(Long userId) {
+        userService.getById(userId);
+        return userStorage.getReferenceById(userId);
+    }
+
     private Item getItem(Long id) {
         return itemStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("Вещь с id = " + id + " не найдена"));
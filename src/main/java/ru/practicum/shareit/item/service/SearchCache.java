@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class SearchCache {
+    public static final String CACHE_NAME = "item-search";
+
+    private final AtomicLong catalogueVersion = new AtomicLong();
+    private final AsyncCache<String, Window<ItemDto>> results;
+
+    public SearchCache(MeterRegistry registry, @Value("${shareit.items.search-cache.maximum-size:10000}") long maximumSize) {
+        this.results = CaffeineCacheMetrics.monitor(registry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .<String, Window<ItemDto>>buildAsync(), CACHE_NAME);
+    }
+
+    public static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public Window<ItemDto> get(String text, Integer size, String cursor, Function<String, Window<ItemDto>> loader) {
+        String normalized = normalize(text);
+        // Записи старых версий каталога больше не читаются и вытесняются по размеру.
+        String key = catalogueVersion.get() + ":" + size + ":" + cursor + ":" + normalized;
+        CompletableFuture<Window<ItemDto>> cached = results.getIfPresent(key);
+        if (cached != null) {
+            return join(cached);
+        }
+        CompletableFuture<Window<ItemDto>> loading = new CompletableFuture<>();
+        cached = results.asMap().putIfAbsent(key, loading);
+        if (cached != null) {
+            return join(cached);
+        }
+        try {
+            loading.complete(loader.apply(normalized));
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        return loading.join();
+    }
+
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            catalogueVersion.incrementAndGet();
+            return;
+        }
+        // До коммита параллельный поиск еще видит старые данные и не должен сохранить их под новой версией.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catalogueVersion.incrementAndGet();
+            }
+        });
+    }
+
+    private static Window<ItemDto> join(CompletableFuture<Window<ItemDto>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
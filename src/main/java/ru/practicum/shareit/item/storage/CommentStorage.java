@@ -1,12 +1,24 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 public interface CommentStorage extends JpaRepository<Comment, Long> {
+    String COMMENT_GRAPH = "Comment.withItemAndAuthor";
+    String ITEM_COMMENTS_REGION = "item-comments";
+
+    @EntityGraph(COMMENT_GRAPH)
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = ITEM_COMMENTS_REGION)})
     List<Comment> findAllByItemId(Long itemId);
 
+    @EntityGraph(COMMENT_GRAPH)
     List<Comment> findAllByItemIdIn(List<Long> itemIds);
 }
@@ -1,16 +1,91 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.StorageHints;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ItemStorage extends JpaRepository<Item, Long> {
         List<Item> findByOwnerId(Long id);
 
-        @Query("SELECT i FROM Item i " +
-                " WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%'))" +
-                " OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%')))")
-        List<Item> search(String text);
-}
\ No newline at end of file
+        List<Item> findAllByRequestIdInOrderById(Collection<Long> requestIds);
+
+        @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = StorageHints.EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+        Stream<Item> streamAllByOwnerIdOrderById(Long ownerId);
+
+        @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+        @Query("SELECT i FROM Item i WHERE i.id = :id")
+        Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+        @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+        @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+        List<Item> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+        // Версии авторов отзывов входят в ETag, потому что ответ содержит их имена.
+        // Сумма версий не меняется при каскадном удалении автора или арендатора, поэтому добавлены число и максимальный id
+        // отзывов и бронирований: удаление уменьшает число, а удаление вместе с новой записью поднимает максимум.
+        @Query("SELECT i.version AS version, i.owner.id AS ownerId, s.nextChangeAt AS nextChangeAt," +
+                " (SELECT COALESCE(SUM(c.author.version), 0) FROM Comment c WHERE c.item.id = i.id) AS authorVersionSum," +
+                " (SELECT COUNT(c) FROM Comment c WHERE c.item.id = i.id) AS commentCount," +
+                " (SELECT COALESCE(MAX(c.id), 0) FROM Comment c WHERE c.item.id = i.id) AS maxCommentId," +
+                " (SELECT COUNT(b) FROM Booking b WHERE b.item.id = i.id) AS bookingCount," +
+                " (SELECT COALESCE(MAX(b.id), 0) FROM Booking b WHERE b.item.id = i.id) AS maxBookingId" +
+                " FROM Item i" +
+                " LEFT JOIN ItemBookingSummary s ON s.itemId = i.id WHERE i.id = :id")
+        Optional<ItemVersion> findVersionById(@Param("id") Long id);
+
+        @Query("SELECT COUNT(i) AS itemCount, COALESCE(SUM(i.version), 0) AS versionSum," +
+                " (SELECT COALESCE(SUM(c.author.version), 0) FROM Comment c WHERE c.item.owner.id = :ownerId) AS authorVersionSum," +
+                " (SELECT COUNT(c) FROM Comment c WHERE c.item.owner.id = :ownerId) AS commentCount," +
+                " (SELECT COALESCE(MAX(c.id), 0) FROM Comment c WHERE c.item.owner.id = :ownerId) AS maxCommentId," +
+                " (SELECT COUNT(b) FROM Booking b WHERE b.item.owner.id = :ownerId) AS bookingCount," +
+                " (SELECT COALESCE(MAX(b.id), 0) FROM Booking b WHERE b.item.owner.id = :ownerId) AS maxBookingId," +
+                " (SELECT MIN(b.start) FROM Booking b" +
+                "   WHERE b.item.owner.id = :ownerId AND b.status = :status AND b.start > :now) AS nextStart," +
+                " (SELECT MIN(b.end) FROM Booking b" +
+                "   WHERE b.item.owner.id = :ownerId AND b.status = :status AND b.end > :now) AS nextEnd" +
+                " FROM Item i WHERE i.owner.id = :ownerId")
+        OwnerItemsVersion findOwnerItemsVersion(@Param("ownerId") Long ownerId, @Param("status") Status status,
+                                                @Param("now") LocalDateTime now);
+
+        // 0 - слово в названии, 1 - подстрока названия, 2 - слово в описании, 3 - подстрока описания.
+        String SEARCH_RELEVANCE = "CASE WHEN CONCAT(' ', UPPER(i.name), ' ') LIKE CONCAT('% ', UPPER(:text), ' %') THEN 0" +
+                " WHEN UPPER(i.name) LIKE CONCAT('%', UPPER(:text), '%') THEN 1" +
+                " WHEN CONCAT(' ', UPPER(i.description), ' ') LIKE CONCAT('% ', UPPER(:text), ' %') THEN 2" +
+                " ELSE 3 END";
+
+        String SEARCH_SELECT = "SELECT i AS item, " + SEARCH_RELEVANCE + " AS relevance FROM Item i" +
+                " WHERE i.available = true" +
+                " AND (UPPER(i.name) LIKE CONCAT('%', UPPER(:text), '%')" +
+                " OR UPPER(i.description) LIKE CONCAT('%', UPPER(:text), '%'))" +
+                " AND (" + SEARCH_RELEVANCE + " > :relevance OR (" + SEARCH_RELEVANCE + " = :relevance AND i.id > :id))";
+
+        String SEARCH_ORDER = " ORDER BY " + SEARCH_RELEVANCE + ", i.id";
+
+        @Query(SEARCH_SELECT + SEARCH_ORDER)
+        List<RankedItem> search(@Param("text") String text, @Param("relevance") int relevance, @Param("id") long id, Limit limit);
+
+        @Query(SEARCH_SELECT +
+                " AND NOT EXISTS (SELECT b.id FROM Booking b" +
+                "   WHERE b.item.id = i.id AND b.status = :status AND b.start < :end AND b.end > :start)" +
+                SEARCH_ORDER)
+        List<RankedItem> searchFree(@Param("text") String text, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                    @Param("status") Status status, @Param("relevance") int relevance, @Param("id") long id,
+                                    Limit limit);
+}
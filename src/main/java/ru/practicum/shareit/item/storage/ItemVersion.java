@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.storage;
+
+import java.time.LocalDateTime;
+
+public interface ItemVersion {
+    Long getVersion();
+
+    Long getOwnerId();
+
+    Long getAuthorVersionSum();
+
+    Long getCommentCount();
+
+    Long getMaxCommentId();
+
+    Long getBookingCount();
+
+    Long getMaxBookingId();
+
+    LocalDateTime getNextChangeAt();
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.storage;
+
+import java.time.LocalDateTime;
+
+public interface OwnerItemsVersion {
+    Long getItemCount();
+
+    Long getVersionSum();
+
+    Long getAuthorVersionSum();
+
+    Long getCommentCount();
+
+    Long getMaxCommentId();
+
+    Long getBookingCount();
+
+    Long getMaxBookingId();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+}
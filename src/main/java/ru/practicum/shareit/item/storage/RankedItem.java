@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.storage;
+
+import ru.practicum.shareit.item.model.Item;
+
+public interface RankedItem {
+    String RELEVANCE = "relevance";
+
+    Item getItem();
+
+    Integer getRelevance();
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "shareit.rate-limit.enabled", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+    public static final String SEARCH = "search";
+    public static final String LIST = "list";
+
+    private static final Map<String, String[]> PATHS = Map.of(
+            SEARCH, new String[]{"/items/search"},
+            LIST, new String[]{"/items", "/bookings", "/bookings/owner", "/requests/all"});
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry registry;
+
+    public RateLimitConfig(RateLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        PATHS.forEach((name, paths) -> {
+            RateLimitProperties.Bucket bucket = properties.getBuckets().get(name);
+            if (bucket == null) {
+                return;
+            }
+            TokenBuckets buckets = new TokenBuckets(bucket.getCapacity(), bucket.getRefillPerSecond(), properties.getMaxClients());
+            Gauge.builder("shareit.ratelimit.clients", buckets, TokenBuckets::estimatedClients)
+                    .tag("bucket", name)
+                    .register(registry);
+            interceptors.addInterceptor(new RateLimitInterceptor(buckets, registry.counter("shareit.ratelimit.rejected", "bucket", name)))
+                    .addPathPatterns(paths);
+        });
+    }
+}
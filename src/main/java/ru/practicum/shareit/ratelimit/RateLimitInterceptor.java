@@ -0,0 +1,41 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exceptions.TooManyRequestsException;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final TokenBuckets buckets;
+    private final Counter rejected;
+
+    public RateLimitInterceptor(TokenBuckets buckets, Counter rejected) {
+        this.buckets = buckets;
+        this.rejected = rejected;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        long wait = buckets.tryAcquire(client(request), System.nanoTime());
+        if (wait > 0) {
+            rejected.increment();
+            long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new TooManyRequestsException("Слишком много запросов, повторите через " + retryAfter + " с.", retryAfter);
+        }
+        return true;
+    }
+
+    private Object client(HttpServletRequest request) {
+        String userId = request.getHeader(USER_HEADER);
+        return userId != null ? userId : request.getRemoteAddr();
+    }
+}
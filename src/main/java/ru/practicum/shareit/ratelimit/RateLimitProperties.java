@@ -0,0 +1,21 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long maxClients = 100_000;
+    private Map<String, Bucket> buckets = new HashMap<>();
+
+    @Data
+    public static class Bucket {
+        private long capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket в форме GCRA: состояние клиента - одно время, к которому бакет снова станет полным.
+public class TokenBuckets {
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final Cache<Object, AtomicLong> buckets;
+
+    public TokenBuckets(long capacity, double refillPerSecond, long maxClients) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Емкость и скорость пополнения бакета должны быть больше нуля.");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.capacityNanos = intervalNanos * capacity;
+        // Бакет, к которому не обращались дольше полного пополнения, неотличим от нового.
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(capacityNanos))
+                .build();
+    }
+
+    // Возвращает 0, если токен получен, иначе - сколько наносекунд ждать следующего.
+    public long tryAcquire(Object client, long now) {
+        AtomicLong fullAt = buckets.getIfPresent(client);
+        if (fullAt == null) {
+            fullAt = buckets.get(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long estimatedClients() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/requests")
+@RequiredArgsConstructor
+public class ItemRequestController {
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                 @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestService.create(itemRequestDto, userId);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwn(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemRequestService.getOwn(userId);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                       @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                       @RequestParam(name = "cursor", required = false) String cursor) {
+        Window<ItemRequestDto> itemRequests = itemRequestService.getAll(userId, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (itemRequests.hasNext()) {
+            ItemRequestDto last = itemRequests.getContent().get(itemRequests.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, KeysetCursor.encode(last.getCreated(), last.getId()));
+        }
+        return response.body(itemRequests.getContent());
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                  @PathVariable Long requestId) {
+        return itemRequestService.getById(userId, requestId);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class ItemRequestDto {
+    private Long id;
+    private String description;
+    private LocalDateTime created;
+    private List<ItemDto> items;
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public final class ItemRequestMapper {
+    private ItemRequestMapper() {
+    }
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemDto> items) {
+        return ItemRequestDto.builder()
+                .id(itemRequest.getId())
+                .description(itemRequest.getDescription())
+                .created(itemRequest.getCreated())
+                .items(items)
+                .build();
+    }
+
+    public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User requestor, LocalDateTime created) {
+        return ItemRequest.builder()
+                .description(itemRequestDto.getDescription())
+                .requestor(requestor)
+                .created(created)
+                .build();
+    }
+}
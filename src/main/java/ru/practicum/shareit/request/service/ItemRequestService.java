@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.request.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto create(ItemRequestDto itemRequestDto, Long userId);
+
+    List<ItemRequestDto> getOwn(Long userId);
+
+    Window<ItemRequestDto> getAll(Long userId, Integer from, Integer size, String cursor);
+
+    ItemRequestDto getById(Long userId, Long requestId);
+}
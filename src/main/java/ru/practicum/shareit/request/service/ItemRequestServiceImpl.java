@@ -0,0 +1,93 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.MetricsConfig;
+import ru.practicum.shareit.Paging;
+import ru.practicum.shareit.exceptions.EmptyInformationException;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestStorage itemRequestStorage;
+    private final ItemStorage itemStorage;
+    private final UserService userService;
+    private final UserStorage userStorage;
+
+    @Override
+    @Transactional
+    public ItemRequestDto create(ItemRequestDto itemRequestDto, Long userId) {
+        if (itemRequestDto.getDescription() == null || itemRequestDto.getDescription().isBlank()) {
+            throw new EmptyInformationException("Описание запроса не может быть пустым.");
+        }
+        userService.getById(userId);
+        User requestor = userStorage.getReferenceById(userId);
+        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto, requestor, LocalDateTime.now());
+        return ItemRequestMapper.toItemRequestDto(itemRequestStorage.save(itemRequest), List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOwn(Long userId) {
+        userService.getById(userId);
+        List<ItemRequest> itemRequests = itemRequestStorage.findAllByRequestorIdOrderByCreatedDescIdDesc(userId);
+        Map<Long, List<ItemDto>> answers = findAnswers(itemRequests);
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest, answers.getOrDefault(itemRequest.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ItemRequestDto> getAll(Long userId, Integer from, Integer size, String cursor) {
+        userService.getById(userId);
+        Window<ItemRequest> itemRequests = itemRequestStorage.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId,
+                Paging.position(from, cursor, "created", LocalDateTime::parse), Paging.limit(size));
+        Map<Long, List<ItemDto>> answers = findAnswers(itemRequests.getContent());
+        return itemRequests.map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest,
+                answers.getOrDefault(itemRequest.getId(), List.of())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto getById(Long userId, Long requestId) {
+        userService.getById(userId);
+        ItemRequest itemRequest = itemRequestStorage.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос с id = " + requestId + " не найден."));
+        return ItemRequestMapper.toItemRequestDto(itemRequest, findAnswers(List.of(itemRequest)).getOrDefault(requestId, List.of()));
+    }
+
+    // Ответы на всю страницу запросов загружаются одним IN-запросом.
+    private Map<Long, List<ItemDto>> findAnswers(Collection<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        return itemStorage.findAllByRequestIdInOrderById(requestIds).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+    }
+}
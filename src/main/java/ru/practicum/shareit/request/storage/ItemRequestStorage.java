@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.storage;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.request.ItemRequest;
+
+import java.util.List;
+
+public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long requestorId);
+
+    Window<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(Long requestorId, ScrollPosition position, Limit limit);
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class UserCacheConfig {
+    public static final String USERS_CACHE = "users";
+
+    // Вытеснение и запись применяются после коммита, иначе параллельный getById успел бы вернуть в кэш старую строку.
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
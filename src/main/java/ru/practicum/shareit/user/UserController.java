@@ -2,9 +2,11 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.BatchLimit;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
@@ -12,6 +14,7 @@ import java.util.Collection;
 public class UserController {
 
     private final UserService userService;
+    private final BatchLimit batchLimit;
 
     @GetMapping
     public Collection<UserDto> returnAllUsers() {
@@ -28,6 +31,12 @@ public class UserController {
         return userService.create(user);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> createAll(@RequestBody List<UserDto> users) {
+        batchLimit.check(users);
+        return userService.createAll(users);
+    }
+
     @PatchMapping("/{id}")
     public UserDto update(@PathVariable Long id, @RequestBody UserDto newUser) {
         return userService.update(id, newUser);
@@ -7,6 +7,8 @@ import java.util.List;
 public interface UserService {
     UserDto create(UserDto user);
 
+    List<UserDto> createAll(List<UserDto> users);
+
     UserDto update(Long id, UserDto user);
 
     UserDto getById(Long id);
@@ -1,40 +1,93 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.MetricsConfig;
+import ru.practicum.shareit.booking.service.AvailabilityCalendar;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.exceptions.EmailExistsException;
 import ru.practicum.shareit.exceptions.EmptyInformationException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.SearchCache;
+import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCacheConfig;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @Service
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "UQ_USER_EMAIL";
+
     private final UserStorage userStorage;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SearchCache searchCache;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final BookingStorage bookingStorage;
+    private final ItemBookingSummaryService summaryService;
 
-    public UserServiceImpl(UserStorage userStorage) {
+    public UserServiceImpl(UserStorage userStorage, EntityManagerFactory entityManagerFactory,
+                           SearchCache searchCache, AvailabilityCalendar availabilityCalendar,
+                           BookingStorage bookingStorage, ItemBookingSummaryService summaryService) {
         this.userStorage = userStorage;
+        this.entityManagerFactory = entityManagerFactory;
+        this.searchCache = searchCache;
+        this.availabilityCalendar = availabilityCalendar;
+        this.bookingStorage = bookingStorage;
+        this.summaryService = summaryService;
     }
 
     @Override
     @Transactional
     public UserDto create(UserDto userDto) {
         validateEmail(userDto.getEmail());
-        isEmailUsed(userDto);
         User user = UserMapper.toUser(userDto);
-        return UserMapper.toUserDto(userStorage.save(user));
+        user.setId(null);
+        return UserMapper.toUserDto(saveAll(List.of(user)).get(0));
     }
 
     @Override
     @Transactional
+    public List<UserDto> createAll(List<UserDto> userDtos) {
+        Set<String> emails = new HashSet<>();
+        for (UserDto userDto : userDtos) {
+            validateEmail(userDto.getEmail());
+            if (!emails.add(userDto.getEmail())) {
+                throw emailExists(userDto.getEmail());
+            }
+        }
+        List<User> users = userDtos.stream()
+                .map(UserMapper::toUser)
+                .peek(user -> user.setId(null))
+                .collect(Collectors.toList());
+        return saveAll(users).stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = UserCacheConfig.USERS_CACHE, key = "#id")
     public UserDto update(Long id, UserDto userDto) {
         User existingUser = userStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден."));
@@ -43,14 +96,14 @@ public class UserServiceImpl implements UserService {
         }
         if (userDto.getEmail() != null) {
             validateEmail(userDto.getEmail());
-            isEmailUsed(userDto);
             existingUser.setEmail(userDto.getEmail());
         }
-        return UserMapper.toUserDto(userStorage.save(existingUser));
+        return UserMapper.toUserDto(saveAll(List.of(existingUser)).get(0));
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    @Cacheable(value = UserCacheConfig.USERS_CACHE, key = "#id")
     public UserDto getById(Long id) {
         User user = userStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден."));
@@ -58,7 +111,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<UserDto> returnAllUsers() {
         return userStorage.findAll().stream()
                 .map(UserMapper::toUserDto)
@@ -67,8 +120,30 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @CacheEvict(value = UserCacheConfig.USERS_CACHE, key = "#id")
     public void remove(long id) {
+        // Бронирования пользователя уходят каскадом, поэтому сводки чужих вещей, которые он бронировал, пересчитываются.
+        // Сводки его собственных вещей удаляются вместе с вещами.
+        List<Long> bookedItemIds = bookingStorage.findItemIdsByBookerId(id);
         userStorage.deleteById(id);
+        userStorage.flush();
+        if (!bookedItemIds.isEmpty()) {
+            summaryService.rebuild(bookedItemIds);
+        }
+        // Вещи, запросы и отзывы пользователя удаляются каскадом в БД, мимо кэша второго уровня.
+        // Сбрасываются только затронутые каскадом регионы, кэш остальных пользователей остается.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+                cache.evictEntityData(Item.class);
+                cache.evictEntityData(Comment.class);
+                cache.evictEntityData(ItemRequest.class);
+                cache.evictQueryRegion(CommentStorage.ITEM_COMMENTS_REGION);
+            }
+        });
+        searchCache.invalidate();
+        availabilityCalendar.invalidateAll();
     }
 
     private void validateEmail(String email) {
@@ -82,11 +157,21 @@ public class UserServiceImpl implements UserService {
         }
     }
 
-    private void isEmailUsed(UserDto userToCheck) {
-        Optional<User> repositoryUser = userStorage.findByEmail(userToCheck.getEmail());
-        if (repositoryUser.isPresent() && !repositoryUser.get().getId().equals(userToCheck.getId())) {
-            log.error("Такой email " + userToCheck.getEmail() + " уже используется.");
-            throw new EmailExistsException("Такой email " + userToCheck.getEmail() + " уже используется.");
+    // Занятый email определяет только ограничение UQ_USER_EMAIL: без предварительного чтения, общее для всех экземпляров.
+    private List<User> saveAll(List<User> users) {
+        try {
+            return userStorage.saveAllAndFlush(users);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (!cause.toUpperCase().contains(EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            throw users.size() == 1 ? emailExists(users.get(0).getEmail()) : new EmailExistsException("Один из email уже используется.");
         }
     }
+
+    private EmailExistsException emailExists(String email) {
+        log.error("Такой email " + email + " уже используется.");
+        return new EmailExistsException("Такой email " + email + " уже используется.");
+    }
 }
@@ -0,0 +1,4 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (UPPER(name) gin_trgm_ops) WHERE is_available;
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (UPPER(description) gin_trgm_ops) WHERE is_available;
@@ -1,15 +1,27 @@
-DROP TABLE IF EXISTS users, requests, items, bookings, comments;
+DROP TABLE IF EXISTS users, requests, items, bookings, comments, item_booking_summary;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT NOT NULL,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_user PRIMARY KEY (id),
   CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     description VARCHAR(512) NOT NULL,
     requestor_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     created TIMESTAMP WITHOUT TIME ZONE,
@@ -17,26 +29,28 @@ CREATE TABLE IF NOT EXISTS requests (
 );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(512) NOT NULL,
     is_available BOOLEAN,
     owner_id BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
     request_id BIGINT REFERENCES requests (id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_item PRIMARY KEY (id)
 );
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
     booker_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
     status VARCHAR(10),
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     text VARCHAR(512) NOT NULL,
     item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
@@ -44,3 +58,32 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT pk_comments PRIMARY KEY (id)
 );
 
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
+    next_booking_id BIGINT,
+    next_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    last_booking_id BIGINT,
+    last_booking_end TIMESTAMP WITHOUT TIME ZONE,
+    next_change_at TIMESTAMP WITHOUT TIME ZONE,
+    booking_count BIGINT NOT NULL DEFAULT 0,
+    approved_count BIGINT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created, id);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_change ON item_booking_summary (next_change_at);
@@ -0,0 +1,26 @@
+package ru.practicum.shareit;
+
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class Fixtures {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private Fixtures() {
+    }
+
+    // Тесты делят базу, поэтому почта каждого пользователя уникальна.
+    public static String email() {
+        return System.nanoTime() + "-" + SEQUENCE.incrementAndGet() + "@mail.ru";
+    }
+
+    public static User user(String name) {
+        return User.builder().name(name).email(email()).build();
+    }
+
+    public static UserDto userDto(String name) {
+        return UserDto.builder().name(name).email(email()).build();
+    }
+}
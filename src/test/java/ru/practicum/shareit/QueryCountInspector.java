@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Считает запросы только после start(): приложение на тестовом профиле (в том числе JMH) ничего не копит.
+public class QueryCountInspector implements StatementInspector {
+    private static final int MAX_STATEMENTS = 1000;
+    private static final AtomicLong COUNT = new AtomicLong();
+    private static final AtomicLong INSERT_COUNT = new AtomicLong();
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static volatile boolean recording;
+
+    @Override
+    public String inspect(String sql) {
+        if (!recording) {
+            return sql;
+        }
+        COUNT.incrementAndGet();
+        if (STATEMENTS.size() < MAX_STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        if (sql.stripLeading().regionMatches(true, 0, "insert", 0, 6)) {
+            INSERT_COUNT.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void start() {
+        COUNT.set(0);
+        INSERT_COUNT.set(0);
+        STATEMENTS.clear();
+        recording = true;
+    }
+
+    public static void stop() {
+        recording = false;
+        STATEMENTS.clear();
+    }
+
+    public static long insertCount() {
+        return INSERT_COUNT.get();
+    }
+
+    public static long count() {
+        return COUNT.get();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@IntegrationTest
+class QueryPlanTest {
+    private static final String FULL_SCAN = "tableScan";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private CommentStorage commentStorage;
+    @Autowired
+    private ItemRequestStorage requestStorage;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        owner = userStorage.save(Fixtures.user("owner"));
+        booker = userStorage.save(Fixtures.user("booker"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(Item.builder().name("Дрель " + i).description("Простая дрель").available(true)
+                    .owner(i % 10 == 0 ? owner : booker).build());
+        }
+        items = itemStorage.saveAll(items);
+        item = items.get(0);
+        List<Booking> bookings = new ArrayList<>();
+        for (Item bookedItem : items) {
+            for (int i = 0; i < 10; i++) {
+                bookings.add(Booking.builder().start(now.plusDays(i - 5)).end(now.plusDays(i - 4)).item(bookedItem)
+                        .booker(booker).status(i % 2 == 0 ? Status.APPROVED : Status.WAITING).build());
+            }
+        }
+        bookingStorage.saveAll(bookings);
+        List<ItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(ItemRequest.builder().description("Нужна дрель " + i).requestor(i % 10 == 0 ? owner : booker)
+                    .created(now.minusHours(i)).build());
+        }
+        requestStorage.saveAll(requests);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void bookerQueriesUseIndexes() {
+        Long bookerId = booker.getId();
+        ScrollPosition first = ScrollPosition.keyset();
+        ScrollPosition next = ScrollPosition.forward(Map.of("start", now, "id", 1L));
+
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdOrderByStartDescIdDesc(bookerId, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdOrderByStartDescIdDesc(bookerId, next, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                bookerId, now, now, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(bookerId, now, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(bookerId, now, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                bookerId, Status.WAITING, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByBookerIdAndItemIdAndEndBefore(bookerId, item.getId(), now));
+    }
+
+    @Test
+    void ownerQueriesUseIndexes() {
+        Long ownerId = owner.getId();
+        ScrollPosition first = ScrollPosition.keyset();
+        ScrollPosition next = ScrollPosition.forward(Map.of("start", now, "id", 1L));
+
+        assertNoFullScan(() -> itemStorage.findByOwnerId(ownerId));
+        assertNoFullScan(() -> bookingStorage.findAllByItemOwnerIdOrderByStartDescIdDesc(ownerId, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByItemOwnerIdOrderByStartDescIdDesc(ownerId, next, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                ownerId, now, now, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(ownerId, now, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(ownerId, now, first, Limit.of(10)));
+        assertNoFullScan(() -> bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                ownerId, Status.WAITING, first, Limit.of(10)));
+    }
+
+    @Test
+    void requestQueriesUseIndexes() {
+        ScrollPosition next = ScrollPosition.forward(Map.of("created", now, "id", 1L));
+
+        assertNoFullScan(() -> requestStorage.findAllByRequestorIdOrderByCreatedDescIdDesc(owner.getId()));
+        assertNoFullScan(() -> requestStorage.findAllByRequestorIdNotOrderByCreatedDescIdDesc(
+                owner.getId(), ScrollPosition.keyset(), Limit.of(10)));
+        assertNoFullScan(() -> requestStorage.findAllByRequestorIdNotOrderByCreatedDescIdDesc(owner.getId(), next, Limit.of(10)));
+    }
+
+    @Test
+    void itemQueriesUseIndexes() {
+        List<Long> itemIds = List.of(item.getId(), item.getId() + 1);
+
+        assertNoFullScan(() -> bookingStorage.findNextAndLastBookings(itemIds, now));
+        assertNoFullScan(() -> bookingStorage.findNextEnds(itemIds, Status.APPROVED, now));
+        assertNoFullScan(() -> bookingStorage.countByItemIds(itemIds, Status.APPROVED));
+        assertNoFullScan(() -> bookingStorage.findEndsStartingBefore(item.getId(), 0, Status.APPROVED, now, Limit.of(1)));
+        assertNoFullScan(() -> commentStorage.findAllByItemId(item.getId()));
+        assertNoFullScan(() -> commentStorage.findAllByItemIdIn(itemIds));
+    }
+
+    // Поиск (search, searchFree) здесь не проверяется: LIKE '%text%' обслуживают только триграммные индексы
+    // из schema-postgresql.sql, в H2 их нет, и план всегда будет полным просмотром items.
+    private void assertNoFullScan(Runnable query) {
+        QueryCountInspector.start();
+        query.run();
+        List<String> statements = QueryCountInspector.statements();
+        QueryCountInspector.stop();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(FULL_SCAN), "Полный просмотр таблицы:\n" + sql + "\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+}
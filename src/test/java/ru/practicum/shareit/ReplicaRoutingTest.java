@@ -0,0 +1,66 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(properties = "shareit.datasource.replicas[0].url=jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replicaDataSource);
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("INSERT INTO users (id, name, email) VALUES (1000000, 'replica', 'replica@mail.ru')");
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        UserDto user = userService.create(Fixtures.userDto("primary"));
+
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, user.getId()));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, user.getId()));
+        List<UserDto> users = userService.returnAllUsers();
+        assertEquals(1, users.size());
+        assertEquals("replica@mail.ru", users.get(0).getEmail());
+    }
+
+    @Test
+    void readsInsideWriteTransactionUsePrimary() {
+        UserDto user = userService.create(Fixtures.userDto("owner"));
+
+        ItemDto item = itemService.create(ItemDto.builder().name("Дрель").description("Простая дрель").available(true).build(),
+                user.getId());
+
+        assertNotNull(item.getId());
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM items WHERE id = ?", Integer.class, item.getId()));
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class AvailabilityCalendarTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(Fixtures.userDto("owner"));
+        booker = userService.create(Fixtures.userDto("booker"));
+        item = itemService.create(ItemDto.builder().name("Дрель").description("Простая дрель").available(true).build(), owner.getId());
+        day = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    @Test
+    void freeSlotsFollowCreatedAndRejectedBookings() throws Exception {
+        expectFreeSlots(day(0), day(10), day(0), day(10));
+
+        book(1, 2);
+        book(2, 3);
+        assertThrows(ValidationException.class, () -> book(2, 2));
+        long rejected = book(5, 6);
+        QueryCountInspector.start();
+        expectFreeSlots(day(0), day(10), day(0), day(1), day(3), day(5), day(6), day(10));
+        assertTrue(QueryCountInspector.statements().stream().noneMatch(sql -> sql.contains("bookings")),
+                String.join("\n", QueryCountInspector.statements()));
+
+        bookingService.changeBookingStatus(owner.getId(), rejected, false);
+        expectFreeSlots(day(0), day(10), day(0), day(1), day(3), day(10));
+        expectFreeSlots(day(1), day(3));
+    }
+
+    @Test
+    void invalidRangeIsRejected() throws Exception {
+        mvc.perform(get("/items/" + item.getId() + "/availability")
+                        .param("from", day(2).toString()).param("to", day(1).toString()))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/items/-1/availability")
+                        .param("from", day(1).toString()).param("to", day(2).toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    private void expectFreeSlots(LocalDateTime from, LocalDateTime to, LocalDateTime... bounds) throws Exception {
+        String[] starts = new String[bounds.length / 2];
+        String[] ends = new String[bounds.length / 2];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = bounds[2 * i].format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            ends[i] = bounds[2 * i + 1].format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        ResultActions result = mvc.perform(get("/items/" + item.getId() + "/availability")
+                        .param("from", from.toString()).param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(starts.length));
+        if (starts.length > 0) {
+            result.andExpect(jsonPath("$[*].start").value(contains((Object[]) starts)))
+                    .andExpect(jsonPath("$[*].end").value(contains((Object[]) ends)));
+        }
+    }
+
+    private long book(int startDay, int endDay) {
+        return bookingService.create(BookingDtoRequest.builder().itemId(item.getId()).start(day(startDay)).end(day(endDay)).build(),
+                booker.getId()).getId();
+    }
+
+    private LocalDateTime day(int days) {
+        return day.plusDays(days);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+@IntegrationTest
+class BookingConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+
+    private User owner;
+    private final List<User> bookers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userStorage.save(Fixtures.user("owner"));
+        bookers.clear();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userStorage.save(Fixtures.user("booker" + i)));
+        }
+    }
+
+    @Test
+    void overlappingBookingIsRejected() {
+        Item item = createItem();
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        bookingService.create(request(item, start, start.plusDays(2)), bookers.get(0).getId());
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.create(request(item, start.plusDays(1), start.plusDays(3)), bookers.get(1).getId()));
+        bookingService.create(request(item, start.plusDays(2), start.plusDays(3)), bookers.get(1).getId());
+    }
+
+    @Test
+    void concurrentOverlappingBookingsOfOneItemSucceedOnce() throws Exception {
+        Item item = createItem();
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+
+        int succeeded = runConcurrently(i -> request(item, start.plusHours(i), start.plusDays(1).plusHours(i)));
+
+        assertEquals(1, succeeded);
+    }
+
+    @Test
+    void concurrentBookingsOfDifferentItemsDoNotBlockEachOther() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            items.add(createItem());
+        }
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+
+        assertTimeout(Duration.ofSeconds(10), () -> {
+            int rounds = 10;
+            for (int round = 0; round < rounds; round++) {
+                LocalDateTime roundStart = start.plusDays(round);
+                int succeeded = runConcurrently(i -> request(items.get(i), roundStart, roundStart.plusHours(12)));
+                assertEquals(THREADS, succeeded);
+            }
+        });
+    }
+
+    private int runConcurrently(RequestFactory factory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                Callable<Void> task = () -> {
+                    startSignal.await();
+                    try {
+                        bookingService.create(factory.create(index), bookers.get(index).getId());
+                        succeeded.incrementAndGet();
+                    } catch (ValidationException ignored) {
+                        // бронирование пересекается с уже созданным
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return succeeded.get();
+    }
+
+    private Item createItem() {
+        return itemStorage.save(Item.builder().name("Дрель").description("Простая дрель").available(true).owner(owner).build());
+    }
+
+    private BookingDtoRequest request(Item item, LocalDateTime start, LocalDateTime end) {
+        return BookingDtoRequest.builder().itemId(item.getId()).start(start).end(end).build();
+    }
+
+    private interface RequestFactory {
+        BookingDtoRequest create(int index);
+    }
+}
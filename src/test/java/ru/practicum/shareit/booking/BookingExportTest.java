@@ -0,0 +1,115 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class BookingExportTest {
+    private static final int ITEMS = 10;
+    private static final int BOOKINGS_PER_ITEM = 120;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userStorage.save(Fixtures.user("owner"));
+        booker = userStorage.save(Fixtures.user("booker"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(Item.builder().name("Дрель " + i).description("Простая дрель").available(true).owner(owner).build());
+        }
+        items = itemStorage.saveAll(items);
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> bookings = new ArrayList<>();
+        for (Item item : items) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                bookings.add(Booking.builder().start(start.plusDays(i)).end(start.plusDays(i).plusHours(1))
+                        .item(item).booker(booker).status(Status.APPROVED).build());
+            }
+        }
+        bookingStorage.saveAll(bookings);
+    }
+
+    @Test
+    void ownerExportStreamsEveryBookingAsJsonLine() throws Exception {
+        List<JsonNode> lines = export("/bookings/owner/export", owner.getId());
+
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM, lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            assertTrue(lines.get(i - 1).get("start").asText().compareTo(lines.get(i).get("start").asText()) >= 0);
+        }
+        JsonNode first = lines.get(0);
+        assertEquals(owner.getId(), itemStorage.findById(first.get("itemId").asLong()).orElseThrow().getOwner().getId());
+        assertTrue(first.get("itemName").asText().startsWith("Дрель"));
+        assertEquals(booker.getId(), first.get("bookerId").asLong());
+    }
+
+    @Test
+    void bookerAndItemExportsStreamEveryRow() throws Exception {
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM, export("/bookings/export", booker.getId()).size());
+        assertEquals(ITEMS, export("/items/export", owner.getId()).size());
+    }
+
+    @Test
+    void exportForUnknownUserReturnsNotFound() throws Exception {
+        mvc.perform(get("/bookings/export").header("X-Sharer-User-Id", -1))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<JsonNode> export(String url, Long userId) throws Exception {
+        MvcResult result = mvc.perform(get(url).header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(10).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+}
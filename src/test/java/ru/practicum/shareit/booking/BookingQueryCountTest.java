@@ -0,0 +1,178 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class BookingQueryCountTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userStorage.save(Fixtures.user("owner"));
+        booker = userStorage.save(Fixtures.user("booker"));
+        userService.getById(owner.getId());
+        userService.getById(booker.getId());
+    }
+
+    @Test
+    void bookerListRunsConstantNumberOfQueries() throws Exception {
+        addBookings(1);
+        long fewRows = countQueries("/bookings?state=ALL&size=50", booker);
+        addBookings(20);
+        long manyRows = countQueries("/bookings?state=ALL&size=50", booker);
+
+        assertEquals(fewRows, manyRows);
+        assertEquals(1, manyRows);
+    }
+
+    @Test
+    void ownerListRunsConstantNumberOfQueries() throws Exception {
+        addBookings(1);
+        long fewRows = countQueries("/bookings/owner?state=ALL&size=50", owner);
+        addBookings(20);
+        long manyRows = countQueries("/bookings/owner?state=ALL&size=50", owner);
+
+        assertEquals(fewRows, manyRows);
+        assertEquals(1, manyRows);
+    }
+
+    @Test
+    void listWithoutPagingReturnsEveryBooking() throws Exception {
+        addBookings(12);
+
+        mvc.perform(get("/bookings").header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(12))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void ownerListPagesFlatBookingsWithoutLoadingEntities() throws Exception {
+        addBookings(5);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long entityLoads = statistics.getEntityLoadCount();
+        Set<Long> ids = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            MvcResult result = mvc.perform(get("/bookings/owner?state=ALL&size=2" + cursor).header("X-Sharer-User-Id", owner.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].itemName").value("item"))
+                    .andExpect(jsonPath("$[0].bookerId").value(booker.getId()))
+                    .andExpect(jsonPath("$[0].item").doesNotExist())
+                    .andExpect(jsonPath("$[0].booker").doesNotExist())
+                    .andReturn();
+            for (JsonNode booking : mapper.readTree(result.getResponse().getContentAsString())) {
+                ids.add(booking.get("id").asLong());
+            }
+            String next = result.getResponse().getHeader("X-Next-Cursor");
+            cursor = next != null ? "&cursor=" + next : null;
+            pages++;
+        }
+
+        assertEquals(2, pages);
+        assertEquals(3, ids.size());
+        assertEquals(entityLoads, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void batchChecksOverlapsWithOneBookingQuery() throws Exception {
+        Item first = itemStorage.save(Item.builder().name("item").description("description").available(true).owner(owner).build());
+        Item second = itemStorage.save(Item.builder().name("item").description("description").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingDtoRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Item item = i % 2 == 0 ? first : second;
+            requests.add(BookingDtoRequest.builder().itemId(item.getId()).start(start.plusDays(i)).end(start.plusDays(i + 1)).build());
+        }
+
+        QueryCountInspector.start();
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10));
+        long bookingSelects = QueryCountInspector.statements().stream()
+                .filter(sql -> sql.stripLeading().regionMatches(true, 0, "select", 0, 6) && sql.contains("from bookings"))
+                .count();
+        assertEquals(1, bookingSelects);
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(Collections.nCopies(501, requests.get(0)))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void addBookings(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < count; i++) {
+            User itemOwner = userStorage.save(Fixtures.user("owner" + i));
+            Item item = itemStorage.save(Item.builder().name("item").description("description").available(true)
+                    .owner(i % 2 == 0 ? owner : itemOwner).build());
+            bookingStorage.save(Booking.builder().start(start.plusHours(i)).end(start.plusDays(1)).item(item)
+                    .booker(booker).status(Status.WAITING).build());
+        }
+    }
+
+    private long countQueries(String url, User user) throws Exception {
+        QueryCountInspector.start();
+        mvc.perform(get(url).header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk());
+        return QueryCountInspector.count();
+    }
+}
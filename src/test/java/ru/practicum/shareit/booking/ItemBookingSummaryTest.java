@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.storage.ItemBookingSummaryStorage;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@IntegrationTest
+class ItemBookingSummaryTest {
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private ItemBookingSummaryStorage summaryStorage;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private BookingDto first;
+    private BookingDto second;
+
+    @BeforeEach
+    void setUp() {
+        owner = userStorage.save(Fixtures.user("owner"));
+        booker = userStorage.save(Fixtures.user("booker"));
+        item = itemStorage.save(Item.builder().name("Дрель").description("Простая дрель").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        second = approve(book(booker, start.plusDays(2), start.plusDays(3)));
+        first = approve(book(booker, start, start.plusDays(1)));
+        book(booker, start.plusDays(4), start.plusDays(5));
+    }
+
+    @Test
+    void createAndApproveUpdateSummary() {
+        ItemBookingSummary summary = summaryStorage.findById(item.getId()).orElseThrow();
+
+        assertEquals(3, summary.getBookingCount());
+        assertEquals(2, summary.getApprovedCount());
+        assertEquals(first.getId(), summary.getNextBookingId());
+        assertNull(summary.getLastBookingId());
+        assertEquals(first.getStart(), summary.getNextChangeAt());
+
+        ItemDtoWithBooking dto = itemService.getById(owner.getId(), item.getId());
+        assertEquals(first.getId(), dto.getNextBooking().getId());
+        assertNull(dto.getLastBooking());
+        assertEquals(first.getId(), itemService.getByOwner(owner.getId()).get(0).getNextBooking().getId());
+    }
+
+    @Test
+    void sweepRollsNextIntoLast() {
+        LocalDateTime later = first.getEnd().plusHours(1);
+
+        assertEquals(1, summaryService.sweep(later));
+
+        ItemBookingSummary summary = summaryStorage.findById(item.getId()).orElseThrow();
+        assertEquals(second.getId(), summary.getNextBookingId());
+        assertEquals(first.getId(), summary.getLastBookingId());
+        assertEquals(second.getStart(), summary.getNextChangeAt());
+        assertEquals(0, summaryService.sweep(later));
+    }
+
+    @Test
+    void dueSummaryIsRecalculatedOnRead() {
+        ItemBookingSummary summary = summaryStorage.findById(item.getId()).orElseThrow();
+        summary.setNextBookingId(second.getId());
+        summary.setNextChangeAt(LocalDateTime.now().minusMinutes(1));
+        summaryStorage.save(summary);
+
+        assertEquals(first.getId(), itemService.getById(owner.getId(), item.getId()).getNextBooking().getId());
+
+        summaryService.rebuild(List.of(item.getId()));
+        assertEquals(first.getId(), summaryStorage.findById(item.getId()).orElseThrow().getNextBookingId());
+        assertEquals(3, summaryStorage.findById(item.getId()).orElseThrow().getBookingCount());
+    }
+
+    @Test
+    void removingBookerClearsSummary() {
+        userService.remove(booker.getId());
+
+        ItemBookingSummary summary = summaryStorage.findById(item.getId()).orElseThrow();
+        assertEquals(0, summary.getBookingCount());
+        assertEquals(0, summary.getApprovedCount());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getNextChangeAt());
+
+        ItemDtoWithBooking dto = itemService.getById(owner.getId(), item.getId());
+        assertNull(dto.getNextBooking());
+        assertNull(dto.getLastBooking());
+    }
+
+    private BookingDto book(User booker, LocalDateTime start, LocalDateTime end) {
+        return bookingService.create(BookingDtoRequest.builder().itemId(item.getId()).start(start).end(end).build(), booker.getId());
+    }
+
+    private BookingDto approve(BookingDto booking) {
+        return bookingService.changeBookingStatus(owner.getId(), booking.getId(), true);
+    }
+}
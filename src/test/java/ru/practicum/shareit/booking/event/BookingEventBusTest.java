@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@IntegrationTest
+class BookingEventBusTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private CollectingConsumer consumer;
+
+    @Test
+    void committedChangesAreDeliveredInOrder() throws Exception {
+        User owner = userStorage.save(Fixtures.user("owner"));
+        User booker = userStorage.save(Fixtures.user("booker"));
+        Item item = itemStorage.save(Item.builder().name("Дрель").description("Простая дрель").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDtoRequest request = BookingDtoRequest.builder().itemId(item.getId()).start(start).end(start.plusDays(1)).build();
+
+        BookingDto booking = bookingService.create(request, booker.getId());
+        assertThrows(ValidationException.class, () -> bookingService.create(request, owner.getId()));
+        bookingService.changeBookingStatus(owner.getId(), booking.getId(), true);
+
+        List<BookingEvent> events = consumer.await(2);
+        assertEquals(2, events.size());
+        assertEquals(booking.getId(), events.get(0).getBookingId());
+        assertEquals(Status.WAITING, events.get(0).getStatus());
+        assertEquals(Status.APPROVED, events.get(1).getStatus());
+    }
+
+    @Test
+    void fullQueuesDropWithoutBlockingPublisher() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<BookingEvent> consumed = new CopyOnWriteArrayList<>();
+        BookingEventConsumer slow = events -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumed.addAll(events);
+        };
+        MeterRegistry registry = new SimpleMeterRegistry();
+        BookingEventBus bus = new BookingEventBus(List.of(slow), registry, 4, 2, Duration.ofMillis(20));
+        bus.start();
+        try {
+            int accepted = 0;
+            long started = System.nanoTime();
+            for (long i = 0; i < 50; i++) {
+                if (bus.publish(BookingEvent.builder().bookingId(i).build())) {
+                    accepted++;
+                }
+            }
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(50 - accepted, registry.counter("shareit.events.rejected").count());
+
+            release.countDown();
+            double dropped = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (consumed.size() + dropped < accepted && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                dropped = registry.counter("shareit.events.dropped", "consumer", slow.name()).count();
+            }
+            assertTrue(dropped > 0);
+            assertEquals(accepted, consumed.size() + (long) dropped);
+            assertFalse(registry.get("shareit.events.lag").timer().count() == 0);
+        } finally {
+            release.countDown();
+            bus.stop();
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        CollectingConsumer collectingConsumer() {
+            return new CollectingConsumer();
+        }
+    }
+
+    static class CollectingConsumer implements BookingEventConsumer {
+        private final List<BookingEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void accept(List<BookingEvent> batch) {
+            events.addAll(batch);
+        }
+
+        List<BookingEvent> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+            return events;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class ItemBatchTest {
+    private static final int ITEMS = 120;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void batchCreateInsertsItemsInJdbcBatches() throws Exception {
+        User owner = userStorage.save(Fixtures.user("owner"));
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(ItemDto.builder().name("Дрель " + i).description("Простая дрель").available(true).build());
+        }
+
+        QueryCountInspector.start();
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ITEMS));
+
+        assertTrue(QueryCountInspector.count() < 10, "statements: " + QueryCountInspector.count());
+        assertTrue(QueryCountInspector.insertCount() <= 3, "inserts: " + QueryCountInspector.insertCount());
+    }
+}
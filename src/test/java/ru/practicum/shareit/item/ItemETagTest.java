@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class ItemETagTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private CommentStorage commentStorage;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userStorage.save(Fixtures.user("owner"));
+        booker = userStorage.save(Fixtures.user("booker"));
+        item = itemStorage.save(Item.builder().name("Дрель").description("Простая дрель").available(true).owner(owner).build());
+    }
+
+    @Test
+    void itemIsNotReloadedWhileUnchanged() throws Exception {
+        String url = "/items/" + item.getId();
+        String tag = getTag(url, owner.getId());
+
+        QueryCountInspector.start();
+        mvc.perform(get(url).header("X-Sharer-User-Id", owner.getId()).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+        assertEquals(1, QueryCountInspector.count());
+
+        mvc.perform(patch(url)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(ItemDto.builder().name("Дрель-шуруповерт").build())))
+                .andExpect(status().isOk());
+
+        mvc.perform(get(url).header("X-Sharer-User-Id", owner.getId()).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk());
+        assertNotEquals(tag, getTag(url, owner.getId()));
+    }
+
+    @Test
+    void ownerItemsAndBookingTagsChangeWithBookings() throws Exception {
+        String itemsTag = getTag("/items", owner.getId());
+        mvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()).header(HttpHeaders.IF_NONE_MATCH, itemsTag))
+                .andExpect(status().isNotModified());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        BookingDtoRequest request = BookingDtoRequest.builder().itemId(item.getId()).start(start).end(start.plusDays(1)).build();
+        String body = mvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long bookingId = mapper.readTree(body).get("id").asLong();
+        assertNotEquals(itemsTag, getTag("/items", owner.getId()));
+
+        String bookingUrl = "/bookings/" + bookingId;
+        String bookingTag = getTag(bookingUrl, booker.getId());
+        mvc.perform(get(bookingUrl).header("X-Sharer-User-Id", booker.getId()).header(HttpHeaders.IF_NONE_MATCH, bookingTag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(patch(bookingUrl).header("X-Sharer-User-Id", owner.getId()).param("approved", "true"))
+                .andExpect(status().isOk());
+        assertNotEquals(bookingTag, getTag(bookingUrl, booker.getId()));
+    }
+
+    @Test
+    void itemTagChangesWhenCommentAuthorIsRenamed() throws Exception {
+        commentStorage.save(Comment.builder().text("Отличная дрель").item(item).author(booker)
+                .created(LocalDateTime.now()).build());
+        String url = "/items/" + item.getId();
+        String itemTag = getTag(url, booker.getId());
+        String itemsTag = getTag("/items", owner.getId());
+
+        mvc.perform(patch("/users/" + booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(UserDto.builder().name("renamed").build())))
+                .andExpect(status().isOk());
+
+        mvc.perform(get(url).header("X-Sharer-User-Id", booker.getId()).header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isOk());
+        assertNotEquals(itemsTag, getTag("/items", owner.getId()));
+    }
+
+    @Test
+    void itemTagChangesWhenCommentAuthorIsRemoved() throws Exception {
+        User author = userStorage.save(Fixtures.user("author"));
+        commentStorage.save(Comment.builder().text("Отличная дрель").item(item).author(author)
+                .created(LocalDateTime.now()).build());
+        String url = "/items/" + item.getId();
+        String itemTag = getTag(url, booker.getId());
+        String ownerTag = getTag(url, owner.getId());
+        String itemsTag = getTag("/items", owner.getId());
+
+        mvc.perform(delete("/users/" + author.getId())).andExpect(status().isOk());
+
+        mvc.perform(get(url).header("X-Sharer-User-Id", booker.getId()).header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isOk());
+        assertNotEquals(ownerTag, getTag(url, owner.getId()));
+        assertNotEquals(itemsTag, getTag("/items", owner.getId()));
+    }
+
+    private String getTag(String url, Long userId) throws Exception {
+        String tag = mvc.perform(get(url).header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(tag);
+        return tag;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class ItemSearchTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    private String token;
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        token = "zq" + System.nanoTime();
+        owner = userService.create(Fixtures.userDto("owner"));
+    }
+
+    @Test
+    void nameAndWholeWordMatchesComeFirst() throws Exception {
+        long descriptionSubstring = create("Молоток", "Молоток" + token, true);
+        long descriptionWord = create("Пила", "Пила для " + token + " работ", true);
+        long nameSubstring = create("Дрель" + token, "Простая дрель", true);
+        create(token, "Снята с аренды", false);
+        long nameWord = create("Дрель " + token, "Ударная дрель", true);
+
+        MvcResult first = mvc.perform(get("/items/search").param("text", token.toUpperCase()).param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains((int) nameWord, (int) nameSubstring, (int) descriptionWord)))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+        mvc.perform(get("/items/search").param("text", token).param("size", "3")
+                        .param("cursor", first.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains((int) descriptionSubstring)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void rangeExcludesItemsWithApprovedOverlap() throws Exception {
+        UserDto booker = userService.create(Fixtures.userDto("booker"));
+        LocalDateTime friday = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.DAYS);
+        long approved = create("Дрель " + token, "Занята", true);
+        long waiting = create("Пила " + token, "Ждет подтверждения", true);
+        long approvedLater = create("Молоток " + token, "Занят позже", true);
+        bookingService.changeBookingStatus(owner.getId(), book(approved, friday.plusDays(1), friday.plusDays(4), booker), true);
+        book(waiting, friday, friday.plusDays(2), booker);
+        bookingService.changeBookingStatus(owner.getId(), book(approvedLater, friday.plusDays(2), friday.plusDays(3), booker), true);
+
+        QueryCountInspector.start();
+        mvc.perform(get("/items/search").param("text", token)
+                        .param("start", friday.toString()).param("end", friday.plusDays(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains((int) waiting, (int) approvedLater)));
+
+        assertEquals(1, QueryCountInspector.count(), String.join("\n", QueryCountInspector.statements()));
+        mvc.perform(get("/items/search").param("text", token).param("start", friday.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void withoutSizeAllMatchesAreReturned() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            create("Дрель " + token, "Дрель " + i, true);
+        }
+
+        mvc.perform(get("/items/search").param("text", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(12))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void invalidPageIsRejected() throws Exception {
+        mvc.perform(get("/items/search").param("text", token).param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/items/search").param("text", token).param("cursor", "не курсор"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long book(long itemId, LocalDateTime start, LocalDateTime end, UserDto booker) {
+        return bookingService.create(BookingDtoRequest.builder().itemId(itemId).start(start).end(end).build(), booker.getId()).getId();
+    }
+
+    private long create(String name, String description, boolean available) {
+        return itemService.create(ItemDto.builder().name(name).description(description).available(available).build(),
+                owner.getId()).getId();
+    }
+}
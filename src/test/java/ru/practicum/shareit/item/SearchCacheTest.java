@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.SearchCache;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@IntegrationTest
+class SearchCacheTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(Fixtures.userDto("owner"));
+    }
+
+    @Test
+    void normalisedTextIsServedFromCache() {
+        String name = "Дрель" + System.nanoTime();
+        itemService.create(ItemDto.builder().name(name).description("Простая дрель").available(true).build(), owner.getId());
+        assertEquals(1, search(name.toLowerCase()).size());
+
+        QueryCountInspector.start();
+        assertEquals(1, search("  " + name.toUpperCase() + " ").size());
+
+        assertEquals(0, QueryCountInspector.count());
+    }
+
+    @Test
+    void createAndUpdateInvalidateResults() {
+        String name = "Отвертка" + System.nanoTime();
+        assertTrue(search(name).isEmpty());
+        ItemDto item = itemService.create(ItemDto.builder().name(name).description("Крестовая").available(true).build(),
+                owner.getId());
+        assertEquals(1, search(name).size());
+
+        itemService.update(ItemDto.builder().available(false).build(), owner.getId(), item.getId());
+
+        assertTrue(search(name).isEmpty());
+    }
+
+    @Test
+    void concurrentMissesRunOneQuery() throws Exception {
+        SearchCache cache = new SearchCache(new SimpleMeterRegistry(), 100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<ItemDto>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    return cache.get("Drill", 10, null, text -> {
+                        loads.incrementAndGet();
+                        sleep();
+                        return Window.from(List.of(ItemDto.builder().name(text).build()), ScrollPosition::offset);
+                    }).getContent();
+                }));
+            }
+            startSignal.countDown();
+            for (Future<List<ItemDto>> future : futures) {
+                assertEquals("drill", future.get(5, TimeUnit.SECONDS).get(0).getName());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, loads.get());
+        cache.invalidate();
+        cache.get("drill", 10, null, text -> {
+            loads.incrementAndGet();
+            return Window.from(List.of(), ScrollPosition::offset);
+        });
+        assertEquals(2, loads.get());
+    }
+
+    private List<ItemDto> search(String text) {
+        return itemService.search(text, null, null, 10, null).getContent();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.spi.support.DomainDataRegionTemplate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.SecondLevelCacheConfig;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDtoRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@IntegrationTest
+class SecondLevelCacheTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userService.create(Fixtures.userDto("owner"));
+        booker = userService.create(Fixtures.userDto("booker"));
+        item = itemService.create(ItemDto.builder().name("Дрель").description("Простая дрель").available(true).build(), owner.getId());
+    }
+
+    @Test
+    void itemAndCommentsAreReadFromCache() {
+        itemService.getById(booker.getId(), item.getId());
+        long itemHits = statistics.getDomainDataRegionStatistics("items").getHitCount();
+        long commentHits = statistics.getQueryRegionStatistics(CommentStorage.ITEM_COMMENTS_REGION).getHitCount();
+
+        itemService.getById(booker.getId(), item.getId());
+
+        assertEquals(itemHits + 1, statistics.getDomainDataRegionStatistics("items").getHitCount());
+        assertEquals(commentHits + 1, statistics.getQueryRegionStatistics(CommentStorage.ITEM_COMMENTS_REGION).getHitCount());
+        double hitRatio = meterRegistry.get(SecondLevelCacheConfig.CACHE_HIT_RATIO).tag("region", "items").gauge().value();
+        assertTrue(hitRatio > 0, "hit ratio: " + hitRatio);
+    }
+
+    @Test
+    void regionsAreSizeBounded() {
+        assertEquals(20000, getRegionConfiguration("items").getMaximumSize().getAsLong());
+    }
+
+    @Test
+    void updatesAreVisibleThroughCache() {
+        itemService.getById(booker.getId(), item.getId());
+        itemService.update(ItemDto.builder().name("Перфоратор").build(), owner.getId(), item.getId());
+        assertEquals("Перфоратор", itemService.getById(booker.getId(), item.getId()).getName());
+
+        userService.update(owner.getId(), UserDto.builder().name("new owner").build());
+        assertEquals("new owner", userStorage.findById(owner.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void itemLockedForBookingCanBeUpdated() {
+        itemService.getById(booker.getId(), item.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        long bookingId = bookingService.create(BookingDtoRequest.builder()
+                .itemId(item.getId()).start(start).end(start.plusDays(1)).build(), booker.getId()).getId();
+        bookingService.changeBookingStatus(owner.getId(), bookingId, true);
+
+        itemService.update(ItemDto.builder().description("Дрель с аккумулятором").build(), owner.getId(), item.getId());
+
+        assertEquals("Дрель с аккумулятором", itemService.getById(booker.getId(), item.getId()).getDescription());
+    }
+
+    @Test
+    void newCommentInvalidatesCachedComments() {
+        assertTrue(itemService.getById(booker.getId(), item.getId()).getComments().isEmpty());
+        Item entity = itemStorage.findById(item.getId()).orElseThrow();
+        User bookerEntity = userStorage.findById(booker.getId()).orElseThrow();
+        LocalDateTime end = LocalDateTime.now().minusDays(1);
+        bookingStorage.save(Booking.builder().item(entity).booker(bookerEntity)
+                .start(end.minusDays(1)).end(end).status(Status.APPROVED).build());
+
+        itemService.addComment(CommentDtoRequest.builder().text("Отличная дрель").build(), item.getId(), booker.getId());
+
+        assertEquals(1, itemService.getById(booker.getId(), item.getId()).getComments().size());
+        long commentHits = statistics.getQueryRegionStatistics(CommentStorage.ITEM_COMMENTS_REGION).getHitCount();
+        assertEquals("Отличная дрель", itemService.getById(owner.getId(), item.getId()).getComments().get(0).getText());
+        assertEquals(commentHits + 1, statistics.getQueryRegionStatistics(CommentStorage.ITEM_COMMENTS_REGION).getHitCount());
+    }
+
+    @Test
+    void removedUserItemsAreEvicted() {
+        itemService.getById(booker.getId(), item.getId());
+
+        userService.remove(owner.getId());
+
+        assertThrows(NotFoundException.class, () -> itemService.getById(booker.getId(), item.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, booker.getId()));
+    }
+
+    // Hibernate и JCache отдают кэш региона и его конфигурацию только сырыми типами.
+    @SuppressWarnings("unchecked")
+    private CaffeineConfiguration<Object, Object> getRegionConfiguration(String regionName) {
+        DomainDataRegionTemplate region = (DomainDataRegionTemplate) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegion(regionName);
+        javax.cache.Cache<Object, Object> cache = ((JCacheAccessImpl) region.getCacheStorageAccess()).getUnderlyingCache();
+        return cache.getConfiguration(CaffeineConfiguration.class);
+    }
+}
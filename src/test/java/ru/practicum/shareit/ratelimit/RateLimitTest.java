@@ -0,0 +1,61 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shareit.rate-limit.buckets.search.capacity=2",
+        "shareit.rate-limit.buckets.search.refill-per-second=0.1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void bucketRefillsAtConfiguredRate() {
+        TokenBuckets buckets = new TokenBuckets(3, 1, 10);
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire(1L, 0));
+        }
+        assertEquals(second, buckets.tryAcquire(1L, 0));
+        assertEquals(0, buckets.tryAcquire(2L, 0));
+        assertEquals(second / 2, buckets.tryAcquire(1L, second / 2));
+        assertEquals(0, buckets.tryAcquire(1L, second));
+        assertTrue(buckets.tryAcquire(1L, second) > 0);
+    }
+
+    @Test
+    void searchIsLimitedPerUser() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 1))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        mvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 2))
+                .andExpect(status().isOk());
+        mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"user\",\"email\":\"" + System.nanoTime() + "@mail.ru\"}"))
+                .andExpect(status().isOk());
+    }
+}
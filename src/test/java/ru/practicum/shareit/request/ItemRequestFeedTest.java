@@ -0,0 +1,109 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+class ItemRequestFeedTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    private UserDto requestor;
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        requestor = userService.create(Fixtures.userDto("requestor"));
+        owner = userService.create(Fixtures.userDto("owner"));
+    }
+
+    @Test
+    void requestsComeWithTheirAnswers() throws Exception {
+        long requestId = createRequest("Нужна дрель", requestor);
+        itemService.create(ItemDto.builder().name("Дрель").description("Простая дрель").available(true).requestId(requestId).build(),
+                owner.getId());
+
+        mvc.perform(get("/requests").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(requestId))
+                .andExpect(jsonPath("$[0].items[0].name").value("Дрель"))
+                .andExpect(jsonPath("$[0].items[0].requestId").value(requestId));
+        mvc.perform(get("/requests/" + requestId).header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Нужна дрель"))
+                .andExpect(jsonPath("$.items.length()").value(1));
+        mvc.perform(get("/requests/all").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + requestId + ")]").isEmpty());
+        mvc.perform(get("/requests/-1").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void feedIsPagedByCursorWithConstantQueries() throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            long requestId = createRequest("Запрос " + i, requestor);
+            created.add(0, requestId);
+            itemService.create(ItemDto.builder().name("Вещь " + i).description("Описание").available(true).requestId(requestId).build(),
+                    owner.getId());
+        }
+
+        List<Long> feed = new ArrayList<>();
+        List<Long> queries = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            QueryCountInspector.start();
+            MvcResult result = mvc.perform(get("/requests/all?size=2" + cursor).header("X-Sharer-User-Id", owner.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            queries.add(QueryCountInspector.count());
+            for (JsonNode request : mapper.readTree(result.getResponse().getContentAsString())) {
+                assertEquals(1, request.get("items").size());
+                feed.add(request.get("id").asLong());
+            }
+            String next = result.getResponse().getHeader("X-Next-Cursor");
+            cursor = next != null ? "&cursor=" + next : null;
+        }
+
+        assertEquals(created, feed.subList(0, created.size()));
+        assertEquals(queries.get(0), queries.get(1));
+    }
+
+    private long createRequest(String description, UserDto user) throws Exception {
+        MvcResult result = mvc.perform(post("/requests").header("X-Sharer-User-Id", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"" + description + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
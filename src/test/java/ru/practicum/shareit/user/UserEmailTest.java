@@ -0,0 +1,109 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.Fixtures;
+import ru.practicum.shareit.IntegrationTest;
+import ru.practicum.shareit.QueryCountInspector;
+import ru.practicum.shareit.exceptions.EmailExistsException;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@IntegrationTest
+class UserEmailTest {
+    private static final int THREADS = 8;
+    private static final int USERS = 100;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void createDoesNotQueryUsersBeforeInsert() {
+        userService.create(Fixtures.userDto("user"));
+
+        QueryCountInspector.start();
+        userService.create(Fixtures.userDto("user"));
+
+        assertEquals(1, QueryCountInspector.count(), String.join("\n", QueryCountInspector.statements()));
+        assertEquals(1, QueryCountInspector.insertCount());
+    }
+
+    @Test
+    void duplicateEmailIsRejected() {
+        String known = Fixtures.email();
+        userService.create(user(known));
+        String unknown = Fixtures.email();
+        userStorage.save(User.builder().name("user").email(unknown).build());
+        long updated = userService.create(Fixtures.userDto("user")).getId();
+
+        assertThrows(EmailExistsException.class, () -> userService.create(user(known)));
+        assertThrows(EmailExistsException.class, () -> userService.create(user(unknown)));
+        assertThrows(EmailExistsException.class, () -> userService.update(updated, user(unknown)));
+    }
+
+    @Test
+    void batchCreateInsertsUsersInJdbcBatches() {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(Fixtures.userDto("user"));
+        }
+
+        QueryCountInspector.start();
+        assertEquals(USERS, userService.createAll(users).size());
+
+        assertTrue(QueryCountInspector.insertCount() <= 2, "inserts: " + QueryCountInspector.insertCount());
+        assertTrue(QueryCountInspector.count() <= 5, "statements: " + QueryCountInspector.count());
+        assertThrows(EmailExistsException.class, () -> userService.createAll(List.of(Fixtures.userDto("user"), users.get(0))));
+    }
+
+    @Test
+    void concurrentCreatesWithSameEmailSucceedOnce() throws Exception {
+        String email = Fixtures.email();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Void> task = () -> {
+                    startSignal.await();
+                    try {
+                        userService.create(user(email));
+                        succeeded.incrementAndGet();
+                    } catch (EmailExistsException ignored) {
+                        // email уже занят другим потоком
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, succeeded.get());
+    }
+
+    private UserDto user(String email) {
+        return UserDto.builder().name("user").email(email).build();
+    }
+}